@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.5.4"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.keykomi"
@@ -23,6 +24,21 @@ repositories {
 	mavenCentral()
 }
 
+// Нагрузочный тест: отдельный source set, в обычную сборку и test не входит
+sourceSets {
+	create("loadTest") {
+		compileClasspath += sourceSets.main.get().output
+		runtimeClasspath += sourceSets.main.get().output
+	}
+}
+
+val loadTestImplementation by configurations.getting {
+	extendsFrom(configurations.implementation.get())
+}
+val loadTestRuntimeOnly by configurations.getting {
+	extendsFrom(configurations.runtimeOnly.get())
+}
+
 dependencies {
 	// Spring Boot starters
 	implementation("org.springframework.boot:spring-boot-starter-web")
@@ -36,6 +52,12 @@ dependencies {
 	runtimeOnly("io.jsonwebtoken:jjwt-impl:0.12.6")
 	runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.12.6")
 
+	// Metrics: /actuator/prometheus
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+
+	// Cache
+	implementation("com.github.ben-manes.caffeine:caffeine")
+
 	// Development
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 
@@ -53,10 +75,81 @@ dependencies {
 	// Testing
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
+	// SQL, которого нет в H2 (nextval, ON CONFLICT, триггеры), проверяется на встроенном Postgres
+	testImplementation("io.zonky.test:embedded-postgres:2.1.0")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 	testRuntimeOnly("com.h2database:h2")
+
+	// Load test: встроенный Postgres (бинарники приходят из Maven, после первой загрузки работает офлайн)
+	loadTestImplementation("io.zonky.test:embedded-postgres:2.1.0")
+}
+
+// Микробенчмарки горячих путей: ./gradlew jmh, результаты в build/results/jmh/results.json
+jmh {
+	jmhVersion = "1.37"
+	fork = 1
+	warmupIterations = 3
+	iterations = 5
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+}
+
+// Сквозной нагрузочный тест: ./gradlew loadTest -Ploadtest.articles=100000 -Ploadtest.duration=60s
+// Отчет (throughput, p50/p95/p99 по endpoint'ам, offset vs keyset) - build/reports/loadtest/report.json
+// Поиск с логированием dev против prod:
+//   ./gradlew loadTest -Ploadtest.mix=0,0,0,100,0 -Ploadtest.profile=dev -Ploadtest.report=build/reports/loadtest/search-dev.json
+//   ./gradlew loadTest -Ploadtest.mix=0,0,0,100,0 -Ploadtest.profile=prod -Ploadtest.report=build/reports/loadtest/search-prod.json
+// Готовые JSON/gzip тела против сериализации на каждый запрос (CPU на запрос, avg_response_bytes):
+//   ./gradlew loadTest -Ploadtest.mix=50,0,50,0,0 -Ploadtest.precompressed=false -Ploadtest.report=build/reports/loadtest/precompressed-off.json
+//   ./gradlew loadTest -Ploadtest.mix=50,0,50,0,0 -Ploadtest.precompressed=true -Ploadtest.report=build/reports/loadtest/precompressed-on.json
+// Стратегии total на 100k статей (готовые тела выключены, иначе первые страницы не доходят до БД);
+// feed_depth.*.offset против offset_no_count (?count=false):
+//   ./gradlew loadTest -Ploadtest.articles=100000 -Ploadtest.precompressed=false -Ploadtest.count-strategy=exact
+//   ./gradlew loadTest -Ploadtest.articles=100000 -Ploadtest.precompressed=false -Ploadtest.count-strategy=cached
+//   ./gradlew loadTest -Ploadtest.articles=100000 -Ploadtest.precompressed=false -Ploadtest.count-strategy=estimate
+// Массовый импорт 50k статей (POST /api/articles/bulk) против одиночных POST, отчет - bulk_import:
+//   ./gradlew loadTest -Ploadtest.import=50000 -Ploadtest.import-batch-size=500
+// 20 одиночных GET /api/articles/{id} против одного GET /api/articles/batch - секция multi_get
+// каждого прогона (выборок - loadtest.depth-samples); кэш статей мешает меньше на большом seed:
+//   ./gradlew loadTest -Ploadtest.articles=100000 -Ploadtest.depth-samples=200
+// Там же секция fieldsets: ?fields=id,title против полного ответа (avg_response_bytes, p50) и время
+// тех же выборок в БД (db_full / db_sparse)
+val loadTest by tasks.registering(JavaExec::class) {
+	description = "Runs the end-to-end load test against an embedded Postgres."
+	group = "verification"
+	classpath = sourceSets["loadTest"].runtimeClasspath
+	mainClass = "com.keykomi.webblog.loadtest.LoadTestRunner"
+	workingDir = projectDir
+	systemProperty("loadtest.schema", file("../create_tables.sql").path)
+	systemProperty("loadtest.report", layout.buildDirectory.file("reports/loadtest/report.json").get().asFile.path)
+	listOf("articles", "concurrency", "warmup", "duration", "feed-depths", "depth-samples", "virtual-threads",
+		"profile", "mix", "report", "precompressed", "gzip", "count-strategy",
+		"import", "import-batch-size").forEach { name ->
+		project.findProperty("loadtest.$name")?.let { systemProperty("loadtest.$name", it) }
+	}
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
+	// Схема для тестов на встроенном Postgres (PostgresTest), как у loadTest
+	systemProperty("webblog.schema", file("../create_tables.sql").path)
+}
+
+tasks.named<Test>("test") {
+	useJUnitPlatform {
+		excludeTags("memory")
+	}
+}
+
+// Тесты потоковой выгрузки под маленькой кучей: данных заведомо больше, чем -Xmx.
+// Только явно, как jmh и loadTest (пишет ~256 MB в файловую H2): ./gradlew memoryTest
+val memoryTest by tasks.registering(Test::class) {
+	description = "Runs streaming tests under a small heap."
+	group = "verification"
+	testClassesDirs = sourceSets.test.get().output.classesDirs
+	classpath = sourceSets.test.get().runtimeClasspath
+	useJUnitPlatform {
+		includeTags("memory")
+	}
+	maxHeapSize = "128m"
 }
\ No newline at end of file
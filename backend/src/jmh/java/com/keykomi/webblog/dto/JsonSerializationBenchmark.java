@@ -0,0 +1,72 @@
+package com.keykomi.webblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов с теми же настройками Jackson, что в application.yaml (SNAKE_CASE, NON_NULL)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ArticleDTO article;
+    private PaginatedResponse<ArticleSummary> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        article = new ArticleDTO();
+        article.setId(42L);
+        article.setTitle("Статья про производительность");
+        article.setContent("Текст статьи о повседневной жизни и программировании. ".repeat(400));
+        article.setReadCount(1234L);
+        article.setPublishedAt(LocalDateTime.now());
+        article.setUpdatedAt(LocalDateTime.now());
+        article.setImageUrl("https://storage.yandexcloud.net/storage-for-blog/articles/1.png");
+        article.setTags(List.of("java", "spring", "performance"));
+        article.setAuthor("KeykoMI");
+
+        List<ArticleSummary> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            ArticleSummary summary = new ArticleSummary((long) i, "Статья " + i,
+                    "Краткое описание статьи о повседневной жизни и программировании", 100L + i,
+                    LocalDateTime.now(), "https://storage.yandexcloud.net/storage-for-blog/articles/" + i + ".png",
+                    null, "KeykoMI");
+            summary.setTags(List.of("java", "spring"));
+            items.add(summary);
+        }
+        page = new PaginatedResponse<>(items, 1000, 1, pageSize);
+    }
+
+    @Benchmark
+    public byte[] articleDto() throws Exception {
+        return objectMapper.writeValueAsBytes(article);
+    }
+
+    @Benchmark
+    public byte[] paginatedResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
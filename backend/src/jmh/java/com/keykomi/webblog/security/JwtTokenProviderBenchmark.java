@@ -0,0 +1,63 @@
+package com.keykomi.webblog.security;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выдача токена и шаг аутентификации JwtAuthenticationFilter:
+ * было - validateToken + getUsernameFromToken (два разбора), стало - один parseAndVerify или кэш
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "759234752903847529340572839042798";
+    private static final long EXPIRATION_MS = 5_184_000_000L;
+
+    private JwtTokenProvider cachingProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingProvider = new JwtTokenProvider(SECRET, EXPIRATION_MS, 10_000, Duration.ofMinutes(10));
+        // Кэш нулевого размера: каждый вызов честно разбирает и проверяет подпись
+        uncachedProvider = new JwtTokenProvider(SECRET, EXPIRATION_MS, 0, Duration.ofMinutes(10));
+        token = cachingProvider.generateToken("keykomi");
+        cachingProvider.parseAndVerify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingProvider.generateToken("keykomi");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return uncachedProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String filterAuthLegacyDoubleParse() {
+        if (uncachedProvider.validateToken(token)) {
+            return uncachedProvider.getUsernameFromToken(token);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String filterAuthSingleParse() {
+        Claims claims = uncachedProvider.parseAndVerify(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    @Benchmark
+    public String filterAuthCached() {
+        Claims claims = cachingProvider.parseAndVerify(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.keykomi.webblog.security;
+
+import com.keykomi.webblog.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка пароля при логине тем же энкодером, что в SecurityConfig
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordEncoderBenchmark {
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        // Зависимости конфигурации для passwordEncoder() не нужны
+        passwordEncoder = new SecurityConfig(null, null, null, null).passwordEncoder();
+        hash = passwordEncoder.encode("hard_password");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("hard_password", hash);
+    }
+}
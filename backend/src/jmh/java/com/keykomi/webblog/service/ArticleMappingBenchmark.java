@@ -0,0 +1,59 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.entity.Article;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг Article <-> ArticleDTO (toEntity заодно считает excerpt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArticleMappingBenchmark {
+
+    private ArticleService articleService;
+    private Article article;
+    private ArticleDTO dto;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Репозиторий и JDBC маппингу не нужны
+        ReadCountAggregator readCountAggregator = new ReadCountAggregator(null, null, meterRegistry, 500);
+        TrendingService trendingService = new TrendingService(null, "24h", Duration.ofHours(6), 50, 500);
+        articleService = new ArticleService(null, readCountAggregator, new ArticleChangeTracker(),
+                trendingService, null, meterRegistry, 100, Duration.ofMinutes(1), 100);
+
+        String content = "## Заголовок\n\nТекст статьи с [ссылкой](https://blog.keykomi.com) и **выделением**. ".repeat(200);
+
+        article = new Article();
+        article.setId(42L);
+        article.setTitle("Статья про производительность");
+        article.setContent(content);
+        article.setReadCount(1234L);
+        article.setPublishedAt(LocalDateTime.now());
+        article.setUpdatedAt(LocalDateTime.now());
+        article.setImageUrl("https://storage.yandexcloud.net/storage-for-blog/articles/1.png");
+        article.setAuthor("KeykoMI");
+        article.setTags(List.of("java", "spring", "performance"));
+
+        dto = articleService.toDTO(article);
+    }
+
+    @Benchmark
+    public ArticleDTO toDTO() {
+        return articleService.toDTO(article);
+    }
+
+    @Benchmark
+    public Article toEntity() {
+        return articleService.toEntity(dto);
+    }
+}
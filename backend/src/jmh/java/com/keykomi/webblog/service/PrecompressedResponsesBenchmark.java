@@ -0,0 +1,83 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.keykomi.webblog.dto.ArticleSummary;
+import com.keykomi.webblog.dto.PaginatedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU на ответ со страницей ленты: сериализация на каждый запрос (+ gzip, как делал бы
+ * сервер или nginx) против готовых байтов из PrecompressedResponses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrecompressedResponsesBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PaginatedResponse<ArticleSummary> page;
+    private PrecompressedResponses responses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        List<ArticleSummary> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            ArticleSummary summary = new ArticleSummary((long) i, "Статья " + i,
+                    "Краткое описание статьи о повседневной жизни и программировании", 100L + i,
+                    LocalDateTime.now(), "https://storage.yandexcloud.net/storage-for-blog/articles/" + i + ".png",
+                    null, "KeykoMI");
+            summary.setTags(List.of("java", "spring"));
+            items.add(summary);
+        }
+        page = new PaginatedResponse<>(items, 1000, 1, pageSize);
+
+        responses = new PrecompressedResponses(objectMapper, new ArticleChangeTracker(), new SimpleMeterRegistry(),
+                true, 5, DataSize.ofBytes(512), DataSize.ofMegabytes(32), Duration.ofMinutes(10));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(gzip, page);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> precompressed() {
+        return responses.feedPage(1, pageSize, "gzip, deflate, br", () -> page);
+    }
+}
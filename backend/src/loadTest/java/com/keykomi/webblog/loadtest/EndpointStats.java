@@ -0,0 +1,73 @@
+package com.keykomi.webblog.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Латентности и размеры ответов одного endpoint'а.
+ * Запись под монитором: на фоне HTTP-запроса это копейки, зато перцентили точные
+ */
+final class EndpointStats {
+
+    private final String name;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long latencyNanos, long responseBytes) {
+        bytes.add(responseBytes);
+        synchronized (this) {
+            if (count == latenciesNanos.length) {
+                latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+            }
+            latenciesNanos[count++] = latencyNanos;
+        }
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    synchronized Map<String, Object> summary(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", count);
+        result.put("errors", errors.sum());
+        result.put("throughput_rps", elapsedSeconds > 0 ? round(count / elapsedSeconds) : 0.0);
+        result.put("p50_ms", millis(percentile(sorted, 0.50)));
+        result.put("p95_ms", millis(percentile(sorted, 0.95)));
+        result.put("p99_ms", millis(percentile(sorted, 0.99)));
+        result.put("max_ms", millis(count > 0 ? sorted[count - 1] : 0));
+        result.put("avg_response_bytes", count > 0 ? bytes.sum() / count : 0);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.keykomi.webblog.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Параметры прогона. Задаются system properties (gradle передает -Ploadtest.* как есть):
+ * ./gradlew loadTest -Ploadtest.articles=100000 -Ploadtest.concurrency=32 -Ploadtest.duration=60s
+ */
+record LoadTestConfig(
+        int articles,
+        int concurrency,
+        int[] mix,
+        Duration warmup,
+        Duration duration,
+        int[] feedDepths,
+        int depthSamples,
+        boolean gzip,
+        int importArticles,
+        Path schemaFile,
+        Path reportFile
+) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.articles", 20_000),
+                Integer.getInteger("loadtest.concurrency", 16),
+                parseMix(System.getProperty("loadtest.mix", "20,20,30,15,15")),
+                parseDuration(System.getProperty("loadtest.warmup", "10s")),
+                parseDuration(System.getProperty("loadtest.duration", "30s")),
+                parseDepths(System.getProperty("loadtest.feed-depths", "1,100,1000")),
+                Integer.getInteger("loadtest.depth-samples", 20),
+                Boolean.parseBoolean(System.getProperty("loadtest.gzip", "true")),
+                Integer.getInteger("loadtest.import", 0),
+                Path.of(System.getProperty("loadtest.schema", "../create_tables.sql")),
+                Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/report.json"))
+        );
+    }
+
+    // "30s", "2m" или ISO-8601 "PT30S"
+    private static Duration parseDuration(String value) {
+        String v = value.trim().toUpperCase();
+        return Duration.parse(v.startsWith("P") ? v : "PT" + v);
+    }
+
+    /**
+     * Доли запросов: feed_offset, feed_keyset, article_by_id, search, increment_read (в сумме 100).
+     * Только поиск: -Ploadtest.mix=0,0,0,100,0
+     */
+    private static int[] parseMix(String value) {
+        int[] mix = parseInts(value);
+        if (mix.length != 5 || java.util.Arrays.stream(mix).sum() != 100) {
+            throw new IllegalArgumentException("loadtest.mix must be 5 weights summing to 100: " + value);
+        }
+        return mix;
+    }
+
+    private static int[] parseDepths(String value) {
+        return parseInts(value);
+    }
+
+    private static int[] parseInts(String value) {
+        return java.util.Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+}
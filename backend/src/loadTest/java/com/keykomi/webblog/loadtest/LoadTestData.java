@@ -0,0 +1,70 @@
+package com.keykomi.webblog.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Схема из create_tables.sql (вместе с триггерами search_vector) и синтетические данные
+ * в духе benchmarks/search_vector.sql
+ */
+final class LoadTestData {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestData.class);
+
+    static final String USERNAME = "loadtest";
+    static final String PASSWORD = "loadtest-password";
+
+    static final String[] TAGS = {"java", "life", "travel", "music", "books"};
+    static final String[] QUERIES = {"postgres", "docker", "java", "кофе", "spring boot", "путешествия nginx"};
+
+    private LoadTestData() {
+    }
+
+    static void createSchema(DataSource dataSource, Path schemaFile) throws IOException {
+        if (!Files.exists(schemaFile)) {
+            throw new IllegalStateException("Schema file not found: " + schemaFile.toAbsolutePath());
+        }
+        // Скрипт целиком одним execute: драйвер Postgres сам делит его на команды и понимает $$ ... $$
+        new JdbcTemplate(dataSource).execute(Files.readString(schemaFile));
+    }
+
+    static void seed(DataSource dataSource, int articles) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        long started = System.nanoTime();
+
+        jdbc.update("""
+                INSERT INTO articles (title, content, excerpt, read_count, published_at, updated_at)
+                SELECT 'Статья ' || g || ' про ' || (ARRAY ['java', 'кофе', 'путешествия', 'музыку', 'книги'])[1 + g % 5],
+                       repeat('Обычный текст статьи о повседневной жизни и программировании. ', 40)
+                           || (ARRAY ['Spring Boot', 'Postgres', 'Docker', 'Next.js', 'nginx'])[1 + g % 5],
+                       left(repeat('Обычный текст статьи о повседневной жизни и программировании. ', 5), 300),
+                       g % 1000,
+                       now() - make_interval(mins => g),
+                       now() - make_interval(mins => g)
+                FROM generate_series(1, ?) AS g
+                """, articles);
+
+        // Два тега на статью; триггер article_tags пересчитывает search_vector
+        jdbc.update("""
+                INSERT INTO article_tags (article_id, tag)
+                SELECT id, (ARRAY ['java', 'life', 'travel', 'music', 'books'])[1 + id % 5] FROM articles
+                UNION ALL
+                SELECT id, (ARRAY ['java', 'life', 'travel', 'music', 'books'])[1 + (id + 2) % 5] FROM articles
+                """);
+
+        jdbc.update("INSERT INTO users (username, mail, hashed_password) VALUES (?, ?, ?)",
+                USERNAME, USERNAME + "@example.com", new BCryptPasswordEncoder().encode(PASSWORD));
+
+        jdbc.execute("ANALYZE articles");
+        jdbc.execute("ANALYZE article_tags");
+
+        logger.info("Seeded {} articles in {} ms", articles, (System.nanoTime() - started) / 1_000_000);
+    }
+}
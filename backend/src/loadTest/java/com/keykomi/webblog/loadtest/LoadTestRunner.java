@@ -0,0 +1,571 @@
+package com.keykomi.webblog.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.keykomi.webblog.WebblogApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сквозной нагрузочный тест: поднимает встроенный Postgres, накатывает create_tables.sql,
+ * засеивает статьи с тегами, запускает приложение на случайном порту и гоняет смесь запросов
+ * (лента offset/keyset, статья, поиск, increment-read).
+ * <p>
+ * Запуск: ./gradlew loadTest, отчет - build/reports/loadtest/report.json.
+ * Помимо смеси замеряются глубокие страницы ленты (offset против keyset) и размеры ответов.
+ */
+public final class LoadTestRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final int PAGE_SIZE = 10;
+    // Блок "связанные / закрепленные" статьи на странице
+    private static final int MULTI_GET_SIZE = 20;
+    private static final String SPARSE_FIELDS = "id,title";
+    private static final int MAX_KEYSET_WALK = 5; // страниц подряд, потом "новый читатель" начинает сначала
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String token;
+    // Прямые запросы в ту же БД - время выборок без HTTP и сериализации
+    private final JdbcTemplate database;
+
+    private final EndpointStats feedOffset = new EndpointStats("feed_offset");
+    private final EndpointStats feedKeyset = new EndpointStats("feed_keyset");
+    private final EndpointStats article = new EndpointStats("article_by_id");
+    private final EndpointStats search = new EndpointStats("search");
+    private final EndpointStats incrementRead = new EndpointStats("increment_read");
+
+    private LoadTestRunner(LoadTestConfig config, HttpClient client, String baseUrl, DataSource database)
+            throws IOException, InterruptedException {
+        this.config = config;
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.database = new JdbcTemplate(database);
+        this.token = login();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            LoadTestData.createSchema(postgres.getPostgresDatabase(), config.schemaFile());
+            LoadTestData.seed(postgres.getPostgresDatabase(), config.articles());
+
+            // Как в application.yaml: JDBC-пачки INSERT - многострочными INSERT
+            String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true";
+            try (ConfigurableApplicationContext app = startApplication(jdbcUrl)) {
+                int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+
+                LoadTestRunner runner = new LoadTestRunner(config, client, "http://localhost:" + port,
+                        postgres.getPostgresDatabase());
+                Map<String, Object> report = runner.run();
+                runner.writeReport(report);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(String jdbcUrl) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.threads.virtual.enabled", Boolean.getBoolean("loadtest.virtual-threads"));
+        // До / после готовых тел: -Ploadtest.precompressed=false
+        properties.put("app.precompressed.enabled", precompressed());
+        // exact | cached | estimate, см. PageTotals
+        properties.put("app.pagination.count-strategy", countStrategy());
+        properties.put("app.articles.bulk.batch-size", importBatchSize());
+        // S3 в смеси не участвует, но клиент создается при старте
+        properties.put("AWS_ACCESS_KEY_ID", "loadtest");
+        properties.put("AWS_SECRET_ACCESS_KEY", "loadtest");
+
+        // Профиль влияет на логирование: сравнение dev и prod - -Ploadtest.profile=dev / prod
+        return new SpringApplicationBuilder(WebblogApplication.class)
+                .profiles(System.getProperty("loadtest.profile", "prod"))
+                .properties(properties)
+                .run();
+    }
+
+    private Map<String, Object> run() throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", configSummary());
+
+        logger.info("Warming up for {}", config.warmup());
+        runMix(config.warmup(), false);
+
+        logger.info("Running mix for {} with {} clients", config.duration(), config.concurrency());
+        long cpuBefore = processCpuNanos();
+        double elapsed = runMix(config.duration(), true);
+        long cpuNanos = processCpuNanos() - cpuBefore;
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        for (EndpointStats stats : List.of(feedOffset, feedKeyset, article, search, incrementRead)) {
+            Map<String, Object> summary = stats.summary(elapsed);
+            endpoints.put(stats.name(), summary);
+            total += ((Number) summary.get("requests")).longValue();
+        }
+        report.put("elapsed_seconds", Math.round(elapsed * 100.0) / 100.0);
+        report.put("total_throughput_rps", Math.round(total / elapsed * 100.0) / 100.0);
+        // Клиент и сервер в одном процессе: абсолютное значение завышено, но прогоны сравнимы
+        report.put("process_cpu_ms_per_request", total > 0 ? Math.round(cpuNanos / 1_000_000.0 / total * 1000.0) / 1000.0 : 0.0);
+        report.put("endpoints", endpoints);
+
+        logger.info("Measuring feed depth: offset vs keyset");
+        report.put("feed_depth", measureFeedDepth());
+
+        logger.info("Measuring multi-get: {} single GETs vs one batch GET", MULTI_GET_SIZE);
+        report.put("multi_get", measureMultiGet());
+
+        logger.info("Measuring sparse fieldsets: fields={} vs full", SPARSE_FIELDS);
+        report.put("fieldsets", measureFieldsets());
+
+        // Последним: импорт меняет данные, на которых меряются остальные фазы
+        if (config.importArticles() > 0) {
+            logger.info("Importing {} articles through /api/articles/bulk", config.importArticles());
+            report.put("bulk_import", measureImport());
+        }
+
+        return report;
+    }
+
+    /**
+     * Смесь запросов в config.concurrency() потоков. Возвращает фактическую длительность в секундах
+     */
+    private double runMix(Duration duration, boolean record) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(config.concurrency());
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency());
+
+        long started = System.nanoTime();
+        for (int i = 0; i < config.concurrency(); i++) {
+            executor.execute(() -> {
+                try {
+                    new Client(record).loop(deadline);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return (System.nanoTime() - started) / 1_000_000_000.0;
+    }
+
+    /**
+     * Одна и та же глубина ленты через OFFSET и через курсор.
+     * Курсоры набираются одним проходом по ленте, замеряется только запрос нужной страницы
+     */
+    private Map<String, Object> measureFeedDepth() throws IOException, InterruptedException {
+        int maxPage = config.articles() / PAGE_SIZE;
+        Map<Integer, String> cursors = new HashMap<>();
+        int deepest = 0;
+        for (int depth : config.feedDepths()) {
+            if (depth <= maxPage) {
+                deepest = Math.max(deepest, depth);
+            }
+        }
+
+        // Курсор страницы N - next_cursor страницы N-1; для первой страницы курсор пустой
+        String cursor = "";
+        for (int page = 1; page <= deepest; page++) {
+            cursors.put(page, cursor);
+            JsonNode body = objectMapper.readTree(get("/api/articles?after=" + encode(cursor) + "&limit=" + PAGE_SIZE).body());
+            cursor = body.path("next_cursor").asText("");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int depth : config.feedDepths()) {
+            if (depth > maxPage) {
+                logger.warn("Skipping feed depth {}: only {} pages seeded", depth, maxPage);
+                continue;
+            }
+            EndpointStats offset = new EndpointStats("offset");
+            EndpointStats offsetNoCount = new EndpointStats("offset_no_count");
+            EndpointStats keyset = new EndpointStats("keyset");
+            String pageCursor = cursors.get(depth);
+            for (int i = 0; i < config.depthSamples(); i++) {
+                timed(offset, "/api/articles?page=" + depth + "&limit=" + PAGE_SIZE);
+                timed(offsetNoCount, "/api/articles?page=" + depth + "&limit=" + PAGE_SIZE + "&count=false");
+                timed(keyset, "/api/articles?after=" + encode(pageCursor) + "&limit=" + PAGE_SIZE);
+            }
+            Map<String, Object> depthResult = new LinkedHashMap<>();
+            depthResult.put("offset", offset.summary(0));
+            depthResult.put("offset_no_count", offsetNoCount.summary(0));
+            depthResult.put("keyset", keyset.summary(0));
+            result.put("page_" + depth, depthResult);
+        }
+        return result;
+    }
+
+    /**
+     * Блок из MULTI_GET_SIZE случайных статей: последовательные GET /api/articles/{id}
+     * (как рендерит их фронтенд) против одного GET /api/articles/batch.
+     * Для одиночных латентность и байты - суммарные на весь блок
+     */
+    private Map<String, Object> measureMultiGet() throws IOException, InterruptedException {
+        EndpointStats singles = new EndpointStats("single_gets");
+        EndpointStats batch = new EndpointStats("batch_get");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < config.depthSamples(); i++) {
+            List<Long> ids = new ArrayList<>(MULTI_GET_SIZE);
+            for (int j = 0; j < MULTI_GET_SIZE; j++) {
+                ids.add(randomArticleId(random));
+            }
+
+            long started = System.nanoTime();
+            long bytes = 0;
+            boolean ok = true;
+            for (Long id : ids) {
+                TimedResponse response = get("/api/articles/" + id);
+                ok &= response.status() == 200;
+                bytes += response.body().length;
+            }
+            if (ok) {
+                singles.record(System.nanoTime() - started, bytes);
+            } else {
+                singles.error();
+            }
+
+            StringBuilder query = new StringBuilder();
+            for (Long id : ids) {
+                query.append(query.isEmpty() ? "" : ",").append(id);
+            }
+            timed(batch, "/api/articles/batch?ids=" + query);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("articles", MULTI_GET_SIZE);
+        result.put("single_gets", singles.summary(0));
+        result.put("batch_get", batch.summary(0));
+        return result;
+    }
+
+    /**
+     * fields=id,title против полного ответа на одних и тех же id / страницах:
+     * байты и латентность HTTP (batch из MULTI_GET_SIZE статей и страница ленты без count),
+     * плюс время в БД тех же выборок, что делает приложение - полные статьи с тегами
+     * против id, title и дат (для ETag); у db_* avg_response_bytes всегда 0
+     */
+    private Map<String, Object> measureFieldsets() throws IOException, InterruptedException {
+        EndpointStats batchFull = new EndpointStats("batch_full");
+        EndpointStats batchSparse = new EndpointStats("batch_sparse");
+        EndpointStats feedFull = new EndpointStats("feed_full");
+        EndpointStats feedSparse = new EndpointStats("feed_sparse");
+        EndpointStats dbFull = new EndpointStats("db_full");
+        EndpointStats dbSparse = new EndpointStats("db_sparse");
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int maxPage = Math.max(1, config.articles() / PAGE_SIZE);
+        for (int i = 0; i < config.depthSamples(); i++) {
+            StringBuilder ids = new StringBuilder();
+            for (int j = 0; j < MULTI_GET_SIZE; j++) {
+                ids.append(ids.isEmpty() ? "" : ",").append(randomArticleId(random));
+            }
+            timed(batchFull, "/api/articles/batch?ids=" + ids);
+            timed(batchSparse, "/api/articles/batch?ids=" + ids + "&fields=" + SPARSE_FIELDS);
+
+            String feed = "/api/articles?page=" + (1 + random.nextInt(maxPage)) + "&limit=" + PAGE_SIZE + "&count=false";
+            timed(feedFull, feed);
+            timed(feedSparse, feed + "&fields=" + SPARSE_FIELDS);
+
+            // id - сгенерированные числа, подставляются как есть
+            long started = System.nanoTime();
+            database.queryForList("SELECT id, title, content, excerpt, read_count, published_at, updated_at, "
+                    + "image_url, author, version FROM articles WHERE id IN (" + ids + ")");
+            database.queryForList("SELECT article_id, tag FROM article_tags WHERE article_id IN (" + ids + ")");
+            dbFull.record(System.nanoTime() - started, 0);
+
+            started = System.nanoTime();
+            database.queryForList("SELECT id, title, published_at, updated_at FROM articles WHERE id IN (" + ids + ")");
+            dbSparse.record(System.nanoTime() - started, 0);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fields", SPARSE_FIELDS);
+        for (EndpointStats stats : List.of(batchFull, batchSparse, feedFull, feedSparse, dbFull, dbSparse)) {
+            result.put(stats.name(), stats.summary(0));
+        }
+        return result;
+    }
+
+    /**
+     * Импорт config.importArticles() статей одним NDJSON-запросом против выборки
+     * одиночных POST /api/articles (старый путь), скорость в статьях в секунду
+     */
+    private Map<String, Object> measureImport() throws IOException, InterruptedException {
+        int total = config.importArticles();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < total; i++) {
+            ndjson.append(objectMapper.writeValueAsString(importedArticle(i))).append('\n');
+        }
+
+        long started = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/articles/bulk"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        double bulkSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Bulk import failed: " + response.statusCode() + " "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        JsonNode result = objectMapper.readTree(response.body());
+
+        int singles = Math.min(1000, Math.max(1, total / 50));
+        started = System.nanoTime();
+        for (int i = 0; i < singles; i++) {
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/articles"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    objectMapper.writeValueAsString(importedArticle(total + i))))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        double singleSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        Map<String, Object> bulk = new LinkedHashMap<>();
+        bulk.put("articles", total);
+        bulk.put("batch_size", importBatchSize());
+        bulk.put("imported", result.path("imported").asInt());
+        bulk.put("failed", result.path("failed").asInt());
+        bulk.put("seconds", Math.round(bulkSeconds * 100.0) / 100.0);
+        bulk.put("articles_per_second", Math.round(total / bulkSeconds));
+
+        Map<String, Object> single = new LinkedHashMap<>();
+        single.put("articles", singles);
+        single.put("seconds", Math.round(singleSeconds * 100.0) / 100.0);
+        single.put("articles_per_second", Math.round(singles / singleSeconds));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("bulk", bulk);
+        report.put("single_post", single);
+        return report;
+    }
+
+    private static Map<String, Object> importedArticle(int i) {
+        Map<String, Object> article = new LinkedHashMap<>();
+        article.put("title", "Импортированная статья " + i);
+        article.put("content", ("Текст импортированной статьи номер " + i + " о жизни и программировании. ").repeat(30));
+        article.put("tags", List.of("import", "tag-" + (i % 50), "group-" + (i % 7)));
+        return article;
+    }
+
+    private final class Client {
+        private final boolean record;
+        private String cursor = "";
+        private int keysetPages;
+
+        private Client(boolean record) {
+            this.record = record;
+        }
+
+        private void loop(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Накопленные доли смеси: roll < thresholds[i] - i-й тип запроса
+            int[] thresholds = new int[config.mix().length];
+            int sum = 0;
+            for (int i = 0; i < thresholds.length; i++) {
+                sum += config.mix()[i];
+                thresholds[i] = sum;
+            }
+            while (System.nanoTime() < deadline) {
+                int roll = random.nextInt(100);
+                try {
+                    if (roll < thresholds[0]) {
+                        call(feedOffset, get("/api/articles?page=" + (1 + random.nextInt(5)) + "&limit=" + PAGE_SIZE));
+                    } else if (roll < thresholds[1]) {
+                        keysetPage();
+                    } else if (roll < thresholds[2]) {
+                        call(article, get("/api/articles/" + randomArticleId(random)));
+                    } else if (roll < thresholds[3]) {
+                        String q = LoadTestData.QUERIES[random.nextInt(LoadTestData.QUERIES.length)];
+                        call(search, get("/api/articles/search?q=" + encode(q) + "&page=1&limit=" + PAGE_SIZE));
+                    } else {
+                        call(incrementRead, post("/api/articles/" + randomArticleId(random) + "/increment-read"));
+                    }
+                } catch (IOException e) {
+                    logger.debug("Request failed: {}", e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void keysetPage() throws IOException, InterruptedException {
+            if (keysetPages >= MAX_KEYSET_WALK) {
+                cursor = "";
+                keysetPages = 0;
+            }
+            TimedResponse response = get("/api/articles?after=" + encode(cursor) + "&limit=" + PAGE_SIZE);
+            call(feedKeyset, response);
+            if (response.status() == 200) {
+                cursor = objectMapper.readTree(response.body()).path("next_cursor").asText("");
+                keysetPages = cursor.isEmpty() ? MAX_KEYSET_WALK : keysetPages + 1;
+            }
+        }
+
+        private void call(EndpointStats stats, TimedResponse response) {
+            if (!record) {
+                return;
+            }
+            if (response.status() / 100 == 2) {
+                stats.record(response.latencyNanos(), response.body().length);
+            } else {
+                stats.error();
+            }
+        }
+    }
+
+    private void timed(EndpointStats stats, String path) throws IOException, InterruptedException {
+        TimedResponse response = get(path);
+        if (response.status() == 200) {
+            stats.record(response.latencyNanos(), response.body().length);
+        } else {
+            stats.error();
+        }
+    }
+
+    private long randomArticleId(ThreadLocalRandom random) {
+        return 1 + random.nextInt(config.articles());
+    }
+
+    // Как браузер: с Accept-Encoding размеры ответов - байты на проводе. Без сжатия: -Ploadtest.gzip=false
+    private TimedResponse get(String path) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (config.gzip()) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return send(request.build());
+    }
+
+    private TimedResponse post(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+    }
+
+    private static boolean precompressed() {
+        return Boolean.parseBoolean(System.getProperty("loadtest.precompressed", "true"));
+    }
+
+    private static int importBatchSize() {
+        return Integer.getInteger("loadtest.import-batch-size", 500);
+    }
+
+    private static String countStrategy() {
+        return System.getProperty("loadtest.count-strategy", "cached");
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    private TimedResponse send(HttpRequest request) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        return new TimedResponse(response.statusCode(), response.body(), System.nanoTime() - started);
+    }
+
+    // increment-read требует авторизации, как и остальные POST на /api/articles/**
+    private String login() throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "login", LoadTestData.USERNAME,
+                "password", LoadTestData.PASSWORD));
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).path("data").path("access_token").asText();
+    }
+
+    private Map<String, Object> configSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("articles", config.articles());
+        summary.put("concurrency", config.concurrency());
+        summary.put("virtual_threads", Boolean.getBoolean("loadtest.virtual-threads"));
+        summary.put("profile", System.getProperty("loadtest.profile", "prod"));
+        summary.put("precompressed", precompressed());
+        summary.put("count_strategy", countStrategy());
+        summary.put("import_articles", config.importArticles());
+        summary.put("gzip", config.gzip());
+        List<Integer> mix = new ArrayList<>();
+        for (int weight : config.mix()) {
+            mix.add(weight);
+        }
+        summary.put("mix", mix);
+        summary.put("warmup_seconds", config.warmup().toSeconds());
+        summary.put("duration_seconds", config.duration().toSeconds());
+        summary.put("page_size", PAGE_SIZE);
+        List<Integer> depths = new ArrayList<>();
+        for (int depth : config.feedDepths()) {
+            depths.add(depth);
+        }
+        summary.put("feed_depths", depths);
+        summary.put("depth_samples", config.depthSamples());
+        return summary;
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Files.createDirectories(config.reportFile().toAbsolutePath().getParent());
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(config.reportFile().toFile(), report);
+        logger.info("Load test report: {}", config.reportFile().toAbsolutePath());
+        logger.info("{}", objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report.get("endpoints")));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record TimedResponse(int status, byte[] body, long latencyNanos) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.keykomi.webblog.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.ArticleSummary;
+import com.keykomi.webblog.service.ArticleFields;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * ?fields= у статей: фильтр ArticleFields.FILTER_ID вешается на DTO через mix-in.
+     * Фильтр передается только с fields (ArticleFields.apply), иначе пишутся все свойства
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer articleFieldsFilter() {
+        return builder -> builder
+                .mixIn(ArticleDTO.class, ArticleFieldsFilter.class)
+                .mixIn(ArticleSummary.class, ArticleFieldsFilter.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    @JsonFilter(ArticleFields.FILTER_ID)
+    private interface ArticleFieldsFilter {
+    }
+}
@@ -1,33 +1,67 @@
 package com.keykomi.webblog.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
 
 import java.net.URI;
 
 @Configuration
 public class S3Config {
 
-    @Bean
-    public S3Client s3Client() {
-        String accessKey = System.getenv("AWS_ACCESS_KEY_ID");
-        String secretKey = System.getenv("AWS_SECRET_ACCESS_KEY");
+    // Переменные окружения, как и раньше; через Environment их можно задать и свойствами (нагрузочный тест)
+    @Value("${AWS_ACCESS_KEY_ID:}")
+    private String accessKey;
+
+    @Value("${AWS_SECRET_ACCESS_KEY:}")
+    private String secretKey;
+
+    // По умолчанию Yandex Cloud; для локального S3-совместимого стенда (MinIO и т.п.) - свой endpoint и path-style
+    @Value("${app.s3.endpoint:https://storage.yandexcloud.net}")
+    private String endpoint;
+
+    @Value("${app.s3.region:ru-central1}")
+    private String region;
 
-        if (accessKey == null || secretKey == null) {
+    @Value("${app.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    // Файлы больше порога уходят multipart upload частями по part-size, не целиком одним PUT
+    @Value("${app.s3.multipart.threshold:16MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${app.s3.multipart.part-size:8MB}")
+    private DataSize multipartPartSize;
+
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        if (!StringUtils.hasText(accessKey) || !StringUtils.hasText(secretKey)) {
             throw new IllegalStateException("Yandex Cloud S3 credentials not configured. " +
                     "Please set AWS_ACCESS_KEY_ID and AWS_SECRET_ACCESS_KEY environment variables.");
         }
 
-        return S3Client.builder()
-                .region(Region.of("ru-central1")) // Регион Yandex Cloud
-                .endpointOverride(URI.create("https://storage.yandexcloud.net")) // Endpoint для Yandex Cloud
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .endpointOverride(URI.create(endpoint))
+                .forcePathStyle(pathStyleAccess)
                 .credentialsProvider(StaticCredentialsProvider.create(
                         AwsBasicCredentials.create(accessKey, secretKey)
                 ))
+                // Контрольные суммы только там, где их требует API: не все S3-совместимые хранилища их понимают
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(multipartThreshold.toBytes())
+                        .minimumPartSizeInBytes(multipartPartSize.toBytes())
+                        .build())
                 .build();
     }
-}
\ No newline at end of file
+}
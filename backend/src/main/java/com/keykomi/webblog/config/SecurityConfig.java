@@ -69,10 +69,14 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/actuator/health/**").permitAll()
+                        // Scrape Prometheus. В prod actuator только на management.server.port,
+                        // который наружу не публикуется (application-prod.yaml, docker-compose.prod.yml)
+                        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").permitAll()
 
                         // Публичное чтение статей
                         .requestMatchers(HttpMethod.GET, "/api/articles/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/articles").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/tags").permitAll()
 
                         // Создание, обновление, удаление статей только для авторизованных
                         .requestMatchers(HttpMethod.POST, "/api/articles/**").authenticated()
@@ -1,13 +1,28 @@
 package com.keykomi.webblog.controller;
 
 import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.ArticleSummary;
+import com.keykomi.webblog.dto.BulkImportResult;
+import com.keykomi.webblog.dto.SliceResponse;
+import com.keykomi.webblog.service.ArticleExportService;
+import com.keykomi.webblog.service.ArticleFields;
+import com.keykomi.webblog.service.ArticleImportService;
 import com.keykomi.webblog.service.ArticleService;
-import org.springframework.data.domain.Page;
+import com.keykomi.webblog.service.PrecompressedResponses;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,37 +32,188 @@ import java.util.Map;
 public class ArticleController {
 
     private final ArticleService articleService;
+    private final ArticleExportService articleExportService;
+    private final ArticleImportService articleImportService;
+    private final PrecompressedResponses precompressedResponses;
 
-    public ArticleController(ArticleService articleService) {
+    public ArticleController(ArticleService articleService,
+                             ArticleExportService articleExportService,
+                             ArticleImportService articleImportService,
+                             PrecompressedResponses precompressedResponses) {
         this.articleService = articleService;
+        this.articleExportService = articleExportService;
+        this.articleImportService = articleImportService;
+        this.precompressedResponses = precompressedResponses;
     }
 
     // Публичные методы (доступны всем)
+    // Все статьи потоком из курсора, без сборки списка в памяти
     @GetMapping("/all")
-    public List<ArticleDTO> getAllArticles() {
-        return articleService.getAllArticles();
+    public ResponseEntity<StreamingResponseBody> getAllArticles() {
+        StreamingResponseBody body = articleExportService::writeSummaries;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
+    /**
+     * Первые app.precompressed.feed-pages страниц отдаются готовыми байтами (JSON / gzip).
+     * count=false - без total (SliceResponse), count(*) не выполняется.
+     * fields=id,title - только эти свойства статей (см. ArticleFields); так же у остальных GET ниже
+     */
     @GetMapping
-    public Page<ArticleDTO> getArticlesByPage(
+    public ResponseEntity<?> getArticlesByPage(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "true") boolean count,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ArticleFields articleFields = ArticleFields.parse(fields);
+        if (!count) {
+            return ResponseEntity.ok(articleFields.apply(
+                    toSliceResponse(articleService.getArticleSliceByPage(page, limit, articleFields), page)));
+        }
+        if (precompressedResponses.coversFeedPage(page)) {
+            return precompressedResponses.feedPage(page, limit, articleFields, acceptEncoding,
+                    () -> articleFields.apply(articleService.getArticlesByPage(page, limit, articleFields)));
+        }
+        return ResponseEntity.ok(articleFields.apply(articleService.getArticlesByPage(page, limit, articleFields)));
+    }
+
+    /**
+     * Статьи с тегом: GET /api/articles?tag=java
+     */
+    @GetMapping(params = {"tag", "!after"})
+    public ResponseEntity<?> getArticlesByTag(
+            @RequestParam String tag,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "true") boolean count,
+            @RequestParam(required = false) String fields
     ) {
-        return articleService.getArticlesByPage(page, limit);
+        ArticleFields articleFields = ArticleFields.parse(fields);
+        if (!count) {
+            return ResponseEntity.ok(articleFields.apply(
+                    toSliceResponse(articleService.getArticleSliceByTag(tag, page, limit, articleFields), page)));
+        }
+        return ResponseEntity.ok(articleFields.apply(articleService.getArticlesByTag(tag, page, limit, articleFields)));
     }
 
+    /**
+     * Лента по курсору: GET /api/articles?after=<next_cursor>
+     * Пустой after - первая страница
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<?> getArticlesAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        ArticleFields articleFields = ArticleFields.parse(fields);
+        return ResponseEntity.ok(articleFields.apply(articleService.getArticlesAfter(after, limit, articleFields)));
+    }
+
+    /**
+     * Популярное за окно с затуханием по времени: GET /api/articles/trending?window=24h
+     * Окна - app.trending.windows (по умолчанию 1h, 24h, 7d)
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrending(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        ArticleFields articleFields = ArticleFields.parse(fields);
+        return ResponseEntity.ok(articleFields.apply(articleService.getTrending(window, limit, articleFields)));
+    }
+
+    /**
+     * Несколько статей за один запрос: GET /api/articles/batch?ids=3,1,2.
+     * Порядок - как в ids, отсутствующие перечислены в missing; больше app.articles.batch.max-size - 400
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getArticlesBatch(@RequestParam List<Long> ids,
+                                              @RequestParam(required = false) String fields) {
+        ArticleFields articleFields = ArticleFields.parse(fields);
+        return ResponseEntity.ok(articleFields.apply(articleService.getArticlesByIds(ids, articleFields)));
+    }
+
+    /**
+     * Полный текст статьи отдается только здесь, списки возвращают ArticleSummary.
+     * ETag - слабый, от updated_at и read_count: одно и то же тело уходит и в gzip, и без сжатия
+     * (Vary: Accept-Encoding), а read_count меняется без updated_at. Last-Modified - от updated_at.
+     * If-None-Match / If-Modified-Since проверяются до сборки тела: на совпадение - 304,
+     * тело не сериализуется и не сжимается даже при промахе кэша.
+     * Остальным - готовые байты из PrecompressedResponses, ключ по тем же значениям и набору полей.
+     * fields без content - статья читается только нужными колонками
+     */
     @GetMapping("/{id}")
-    public ArticleDTO getArticleById(@PathVariable Long id) {
-        return articleService.getArticleById(id);
+    public ResponseEntity<?> getArticleById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            ServletWebRequest webRequest
+    ) {
+        ArticleFields articleFields = ArticleFields.parse(fields);
+        ArticleDTO article = articleService.getArticleById(id, articleFields);
+
+        LocalDateTime modified = article.getUpdatedAt() != null ? article.getUpdatedAt() : article.getPublishedAt();
+        if (modified == null) {
+            return ResponseEntity.ok(articleFields.apply(article));
+        }
+
+        long modifiedMillis = modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // read_count нет в ответе (fields без него) - и в валидаторе он не нужен
+        String version = article.getId() + "-" + modifiedMillis
+                + (article.getReadCount() != null ? "-" + article.getReadCount() : "");
+        // ETag и Last-Modified в ответ ставит сам checkNotModified, в builder их не дублируем
+        if (webRequest.checkNotModified("W/\"" + version + "\"", modifiedMillis)) {
+            webRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            return null;
+        }
+        return precompressedResponses.respond(ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT_ENCODING),
+                "article:" + version + ":" + articleFields.key(),
+                acceptEncoding, () -> articleFields.apply(article));
+    }
+
+    private static SliceResponse<ArticleSummary> toSliceResponse(Slice<ArticleSummary> slice, int page) {
+        return new SliceResponse<>(slice.getContent(), page, slice.getSize(), slice.hasNext());
     }
 
     // Методы только для авторизованных пользователей
+
+    /**
+     * Полная выгрузка статей (с content) в NDJSON, одна статья на строку
+     * GET /api/articles/export
+     */
+    @GetMapping("/export")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        StreamingResponseBody body = articleExportService::writeArticlesNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"articles.ndjson\"")
+                .body(body);
+    }
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ArticleDTO createArticle(@RequestBody ArticleDTO dto) {
         return articleService.createArticle(dto);
     }
 
+    /**
+     * Массовый импорт: JSON-массив или NDJSON (по статье на строку) в теле запроса.
+     * Пишется пачками app.articles.bulk.batch-size, каждая пачка целиком или никак;
+     * в ответе - ошибки по индексам статей
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("isAuthenticated()")
+    public BulkImportResult importArticles(InputStream body) throws IOException {
+        return articleImportService.importArticles(body);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ArticleDTO updateArticle(@PathVariable Long id, @RequestBody ArticleDTO dto) {
@@ -75,10 +241,10 @@ public class ArticleController {
     @PostMapping("/{id}/increment-read")
     public ResponseEntity<Map<String, Object>> incrementReadCount(@PathVariable Long id) {
         try {
-            ArticleDTO updatedArticle = articleService.incrementReadCount(id);
+            long readCount = articleService.incrementReadCount(id);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("readCount", updatedArticle.getReadCount());
+            response.put("readCount", readCount);
             response.put("success", true);
             response.put("message", "Read count incremented successfully");
 
@@ -1,10 +1,14 @@
 package com.keykomi.webblog.controller;
 
+import com.keykomi.webblog.dto.ArticleSummary;
 import com.keykomi.webblog.dto.PaginatedResponse;
-import com.keykomi.webblog.entity.Article;
+import com.keykomi.webblog.dto.SliceResponse;
+import com.keykomi.webblog.service.ArticleFields;
 import com.keykomi.webblog.service.SearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -16,19 +20,32 @@ import org.springframework.web.bind.annotation.RestController;
 public class SearchController {
     private final SearchService searchService;
 
+    /**
+     * count=false - без total (SliceResponse с has_next), count(*) не выполняется.
+     * fields=id,title - только эти свойства статей (см. ArticleFields), без tags - без запроса тегов
+     */
     @GetMapping("/search")
-    public PaginatedResponse<Article> search(
+    public ResponseEntity<?> search(
             @RequestParam String q,
             @RequestParam(defaultValue = "1") int page, // Изменено на 1 для консистентности с ArticleController
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "true") boolean count,
+            @RequestParam(required = false) String fields) {
 
-        Page<Article> result = searchService.searchArticles(q, page, limit);
+        ArticleFields articleFields = ArticleFields.parse(fields);
+        if (!count) {
+            Slice<ArticleSummary> slice = searchService.searchArticleSlice(q, page, limit, articleFields);
+            return ResponseEntity.ok(articleFields.apply(
+                    new SliceResponse<>(slice.getContent(), page, slice.getSize(), slice.hasNext())));
+        }
 
-        return new PaginatedResponse<>(
+        Page<ArticleSummary> result = searchService.searchArticles(q, page, limit, articleFields);
+
+        return ResponseEntity.ok(articleFields.apply(new PaginatedResponse<>(
                 result.getContent(),
                 result.getTotalElements(),
                 page, // Используем исходный page, а не result.getNumber()
                 result.getSize()
-        );
+        )));
     }
 }
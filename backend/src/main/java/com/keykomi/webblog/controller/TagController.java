@@ -0,0 +1,26 @@
+package com.keykomi.webblog.controller;
+
+import com.keykomi.webblog.dto.TagCount;
+import com.keykomi.webblog.service.ArticleService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tags")
+public class TagController {
+
+    private final ArticleService articleService;
+
+    public TagController(ArticleService articleService) {
+        this.articleService = articleService;
+    }
+
+    // Все теги с количеством статей, самые популярные первыми
+    @GetMapping
+    public List<TagCount> getTags() {
+        return articleService.getTagCounts();
+    }
+}
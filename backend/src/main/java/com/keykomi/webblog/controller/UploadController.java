@@ -1,11 +1,15 @@
 package com.keykomi.webblog.controller;
 
+import com.keykomi.webblog.dto.UploadStatus;
 import com.keykomi.webblog.service.UploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.Map;
 
 @RestController
@@ -24,4 +28,27 @@ public class UploadController {
         String url = uploadService.uploadImage(file);
         return Map.of("url", url);
     }
+
+    /**
+     * Потоковая загрузка: тело запроса - сами байты изображения (не multipart), Content-Length обязателен.
+     * Ответ 202 с id приходит не сразу, а когда все тело уже прочитано и передано в S3:
+     * запрос занимает поток на все время передачи. Не дождались только подтверждения от S3
+     * и вариантов изображения - статус и srcset по GET /api/uploads/images/{id}
+     */
+    @PostMapping("/images")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadStatus> streamImage(HttpServletRequest request) throws IOException {
+        UploadStatus status = uploadService.startUpload(request.getInputStream(), request.getContentLengthLong());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/uploads/images/" + status.id()))
+                .body(status);
+    }
+
+    @GetMapping("/images/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadStatus> getUploadStatus(@PathVariable String id) {
+        return uploadService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
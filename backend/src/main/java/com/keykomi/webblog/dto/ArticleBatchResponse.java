@@ -0,0 +1,13 @@
+package com.keykomi.webblog.dto;
+
+import java.util.List;
+
+/**
+ * Ответ GET /api/articles/batch: статьи в порядке запрошенных id (повторы схлопнуты),
+ * missing - id, которых нет
+ */
+public record ArticleBatchResponse(
+        List<ArticleDTO> items,
+        List<Long> missing
+) {
+}
@@ -1,13 +1,16 @@
 package com.keykomi.webblog.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.keykomi.webblog.service.ImageVariants;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -24,9 +27,26 @@ public class ArticleDTO {
     @JsonProperty("published_at")
     private LocalDateTime publishedAt;
 
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @JsonProperty("updated_at")
+    private LocalDateTime updatedAt;
+
     @JsonProperty("image_url")
     private String imageUrl;
 
+    // Какие уменьшенные копии image_url созданы; наружу - только как image_srcset
+    @JsonIgnore
+    private String imageWidths;
+
     private List<String> tags;
     private String author;
+
+    // Версия для оптимистической блокировки: передается в PUT / PATCH, возвращается новая
+    private Long version;
+
+    // Уменьшенные копии image_url (только созданные), только для чтения
+    @JsonProperty(value = "image_srcset", access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getImageSrcset() {
+        return ImageVariants.srcset(imageUrl, imageWidths);
+    }
 }
@@ -0,0 +1,59 @@
+package com.keykomi.webblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.keykomi.webblog.service.ImageVariants;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Облегченная статья для списков: без content, с заранее посчитанным excerpt
+ */
+@Data
+@NoArgsConstructor
+public class ArticleSummary {
+    private Long id;
+    private String title;
+    private String excerpt;
+
+    @JsonProperty("read_count")
+    private Long readCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @JsonProperty("published_at")
+    private LocalDateTime publishedAt;
+
+    @JsonProperty("image_url")
+    private String imageUrl;
+
+    // Какие уменьшенные копии image_url созданы; наружу - только как image_srcset
+    @JsonIgnore
+    private String imageWidths;
+
+    private List<String> tags;
+    private String author;
+
+    // Уменьшенные копии image_url (только созданные), только для чтения
+    @JsonProperty(value = "image_srcset", access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getImageSrcset() {
+        return ImageVariants.srcset(imageUrl, imageWidths);
+    }
+
+    // Используется в JPQL constructor expression, теги подгружаются отдельным запросом
+    public ArticleSummary(Long id, String title, String excerpt, Long readCount,
+                          LocalDateTime publishedAt, String imageUrl, String imageWidths, String author) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.readCount = readCount;
+        this.publishedAt = publishedAt;
+        this.imageUrl = imageUrl;
+        this.imageWidths = imageWidths;
+        this.author = author;
+    }
+}
@@ -0,0 +1,17 @@
+package com.keykomi.webblog.dto;
+
+import java.util.List;
+
+/**
+ * Итог POST /api/articles/bulk: index - номер статьи во входном потоке (с нуля)
+ */
+public record BulkImportResult(
+        int received,
+        int imported,
+        int failed,
+        List<ItemError> errors
+) {
+
+    public record ItemError(int index, String message) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.keykomi.webblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class CursorPage<T> {
+    private final List<T> items;
+
+    // null, если это последняя страница
+    @JsonProperty("next_cursor")
+    private final String nextCursor;
+
+    private final int limit;
+
+    public CursorPage(List<T> items, String nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+}
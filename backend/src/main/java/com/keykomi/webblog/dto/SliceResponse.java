@@ -0,0 +1,27 @@
+package com.keykomi.webblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Страница без общего числа (?count=false): count(*) не выполняется, клиент знает только,
+ * есть ли следующая страница
+ */
+@Getter
+public class SliceResponse<T> {
+    private final List<T> items;
+    private final int page;
+    private final int limit;
+
+    @JsonProperty("has_next")
+    private final boolean hasNext;
+
+    public SliceResponse(List<T> items, int page, int limit, boolean hasNext) {
+        this.items = items;
+        this.page = page;
+        this.limit = limit;
+        this.hasNext = hasNext;
+    }
+}
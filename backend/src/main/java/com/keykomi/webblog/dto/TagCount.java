@@ -0,0 +1,6 @@
+package com.keykomi.webblog.dto;
+
+public record TagCount(
+        String tag,
+        Long count
+) {}
@@ -0,0 +1,40 @@
+package com.keykomi.webblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Состояние потоковой загрузки: GET /api/uploads/images/{id}.
+ * variants появляются позже url - уменьшенные копии считаются в фоне
+ */
+public record UploadStatus(
+        String id,
+        State status,
+        String url,
+        Map<String, String> variants,
+        String error
+) {
+
+    public enum State {
+        @JsonProperty("pending") PENDING,
+        @JsonProperty("completed") COMPLETED,
+        @JsonProperty("failed") FAILED
+    }
+
+    public static UploadStatus pending(String id) {
+        return new UploadStatus(id, State.PENDING, null, null, null);
+    }
+
+    public static UploadStatus completed(String id, String url) {
+        return new UploadStatus(id, State.COMPLETED, url, null, null);
+    }
+
+    public static UploadStatus failed(String id, String error) {
+        return new UploadStatus(id, State.FAILED, null, null, error);
+    }
+
+    public UploadStatus withVariants(Map<String, String> variants) {
+        return new UploadStatus(id, status, url, variants, error);
+    }
+}
@@ -2,6 +2,8 @@ package com.keykomi.webblog.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 
 import java.time.LocalDateTime;
@@ -12,7 +14,9 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "articles")
+@Table(name = "articles", indexes = {
+        @Index(name = "idx_articles_published_at_id", columnList = "published_at DESC, id DESC")
+})
 public class Article {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +28,10 @@ public class Article {
     @Column(name = "content", columnDefinition = "TEXT")
     private String content;
 
+    // Превью для списков, считается при записи, чтобы ленты не читали content
+    @Column(name = "excerpt", length = 1000)
+    private String excerpt;
+
     @Column(name = "read_count")
     private Long readCount;
 
@@ -31,14 +39,30 @@ public class Article {
     @Column(name = "published_at")
     private LocalDateTime publishedAt;
 
+    // Источник ETag / Last-Modified для GET /api/articles/{id}
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @Column(name = "image_url", length = 500)
     private String imageUrl;
 
+    // Созданные уменьшенные копии image_url ("320w,768w,1280w"), см. ArticleService.imageVariantsReady
+    @Column(name = "image_widths", length = 100)
+    private String imageWidths;
+
     @Column(name = "author", length = 100)
     private String author;
 
-    // Если у вас есть отдельная таблица для тегов
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Оптимистическая блокировка: PUT / PATCH с устаревшей версией получают 409
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Теги грузятся лениво: списки подтягивают их пачкой (ArticleService.attachTags),
+    // чтение одной статьи - через EntityGraph, BatchSize страхует остальные пути
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @CollectionTable(name = "article_tags", joinColumns = @JoinColumn(name = "article_id"))
     @Column(name = "tag")
     private List<String> tags;
@@ -51,5 +75,11 @@ public class Article {
         if (author == null) {
             author = "KeykoMI"; // значение по умолчанию
         }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
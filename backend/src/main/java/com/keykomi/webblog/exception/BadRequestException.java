@@ -0,0 +1,16 @@
+package com.keykomi.webblog.exception;
+
+/**
+ * Некорректные параметры запроса (курсор, limit, окно, fields): 400 с текстом сообщения.
+ * Сообщение уходит клиенту, поэтому - только то, что он сам прислал
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
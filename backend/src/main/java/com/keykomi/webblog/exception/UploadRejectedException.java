@@ -0,0 +1,20 @@
+package com.keykomi.webblog.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Загрузка отклонена до передачи в S3: размер, неизвестная длина, не изображение
+ */
+public class UploadRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public UploadRejectedException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,36 @@
+package com.keykomi.webblog.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Частичное обновление статьи без загрузки сущности (PATCH /api/articles/{id})
+ */
+public interface ArticlePatchRepository {
+
+    /**
+     * UPDATE только переданных колонок (ключ - имя атрибута Article) плюс updated_at и version.
+     * tags == null - теги не трогаются.
+     * expectedVersion != null - обновление только при совпадении версии,
+     * иначе ObjectOptimisticLockingFailureException
+     *
+     * @return новая версия; пусто, если статьи нет
+     */
+    Optional<Long> patch(Long id, Map<String, Object> values, List<String> tags,
+                         LocalDateTime updatedAt, Long expectedVersion);
+
+    /**
+     * Приводит теги статьи к tags разностью множеств: текущие читаются одним SELECT,
+     * добавленные пишутся одним INSERT, убранные удаляются одним DELETE, без изменений - ни одной записи.
+     * Порядок не хранится: у article_tags нет позиции, список и раньше был неупорядоченным bag
+     */
+    void updateTags(Long id, Collection<String> tags);
+
+    /**
+     * То же, но текущие теги уже известны (статья загружена с тегами) - без SELECT
+     */
+    void updateTags(Long id, Collection<String> current, Collection<String> tags);
+}
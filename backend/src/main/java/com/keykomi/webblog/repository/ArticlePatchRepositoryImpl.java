@@ -0,0 +1,116 @@
+package com.keykomi.webblog.repository;
+
+import com.keykomi.webblog.entity.Article;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * UPDATE собирается из переданных полей: content (TEXT, самая тяжелая колонка) не читается
+ * и не переписывается, если его нет в запросе. Версия проверяется в том же UPDATE (WHERE version = ?)
+ */
+class ArticlePatchRepositoryImpl implements ArticlePatchRepository {
+
+    // Имена атрибутов подставляются в JPQL, поэтому только из этого списка
+    private static final Set<String> PATCHABLE =
+            Set.of("title", "content", "excerpt", "readCount", "imageUrl", "imageWidths", "author");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Long> patch(Long id, Map<String, Object> values, List<String> tags,
+                                LocalDateTime updatedAt, Long expectedVersion) {
+        StringBuilder jpql = new StringBuilder("UPDATE Article a SET a.updatedAt = :updatedAt, a.version = a.version + 1");
+        for (String attribute : values.keySet()) {
+            if (!PATCHABLE.contains(attribute)) {
+                throw new IllegalArgumentException("Field is not patchable: " + attribute);
+            }
+            jpql.append(", a.").append(attribute).append(" = :").append(attribute);
+        }
+        jpql.append(" WHERE a.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" AND a.version = :version");
+        }
+
+        Query update = entityManager.createQuery(jpql.toString())
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", id);
+        values.forEach(update::setParameter);
+        if (expectedVersion != null) {
+            update.setParameter("version", expectedVersion);
+        }
+        int updated = update.executeUpdate();
+
+        // 0 строк: статьи нет или версия устарела - различаем по текущей версии
+        List<Long> versions = entityManager
+                .createQuery("SELECT a.version FROM Article a WHERE a.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList();
+        if (versions.isEmpty()) {
+            return Optional.empty();
+        }
+        if (updated == 0) {
+            throw new ObjectOptimisticLockingFailureException(Article.class, id);
+        }
+
+        if (tags != null) {
+            updateTags(id, tags);
+        }
+        return Optional.of(versions.get(0));
+    }
+
+    @Override
+    @Transactional
+    public void updateTags(Long id, Collection<String> tags) {
+        List<String> current = entityManager
+                .createQuery("SELECT t FROM Article a JOIN a.tags t WHERE a.id = :id", String.class)
+                .setParameter("id", id)
+                .getResultList();
+        updateTags(id, current, tags);
+    }
+
+    @Override
+    @Transactional
+    public void updateTags(Long id, Collection<String> current, Collection<String> tags) {
+        // (article_id, tag) - первичный ключ, повторы отбрасываем
+        Set<String> added = new LinkedHashSet<>(tags);
+        List<String> removed = current.stream()
+                .filter(tag -> !added.contains(tag))
+                .toList();
+        current.forEach(added::remove);
+
+        if (!removed.isEmpty()) {
+            entityManager.createNativeQuery("DELETE FROM article_tags WHERE article_id = :id AND tag IN (:tags)")
+                    .setParameter("id", id)
+                    .setParameter("tags", removed)
+                    .executeUpdate();
+        }
+        if (!added.isEmpty()) {
+            // Один многострочный INSERT: statement-триггер article_tags пересчитает search_vector один раз
+            StringJoiner rows = new StringJoiner(", ", "INSERT INTO article_tags (article_id, tag) VALUES ", "");
+            for (int i = 0; i < added.size(); i++) {
+                rows.add("(:id, :tag" + i + ")");
+            }
+            Query insert = entityManager.createNativeQuery(rows.toString())
+                    .setParameter("id", id);
+            int i = 0;
+            for (String tag : added) {
+                insert.setParameter("tag" + i++, tag);
+            }
+            insert.executeUpdate();
+        }
+    }
+}
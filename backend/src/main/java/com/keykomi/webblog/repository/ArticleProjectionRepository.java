@@ -0,0 +1,17 @@
+package com.keykomi.webblog.repository;
+
+import jakarta.persistence.Tuple;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Статьи с произвольным набором колонок (?fields= у GET /api/articles/{id} и /batch)
+ */
+public interface ArticleProjectionRepository {
+
+    /**
+     * SELECT только переданных атрибутов Article; в Tuple они доступны под своими именами
+     */
+    List<Tuple> findColumnsByIdIn(Collection<Long> ids, Collection<String> attributes);
+}
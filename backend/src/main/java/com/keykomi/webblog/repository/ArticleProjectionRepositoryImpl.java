@@ -0,0 +1,46 @@
+package com.keykomi.webblog.repository;
+
+import com.keykomi.webblog.entity.Article;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+class ArticleProjectionRepositoryImpl implements ArticleProjectionRepository {
+
+    // Теги - отдельная таблица, их грузит findTagsByArticleIdIn
+    private static final Set<String> SELECTABLE = Set.of(
+            "id", "title", "content", "excerpt", "readCount", "publishedAt", "updatedAt", "imageUrl", "imageWidths",
+            "author", "version");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Tuple> findColumnsByIdIn(Collection<Long> ids, Collection<String> attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Article> article = query.from(Article.class);
+
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            if (!SELECTABLE.contains(attribute)) {
+                throw new IllegalArgumentException("Attribute is not selectable: " + attribute);
+            }
+            selections.add(article.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections).where(article.get("id").in(ids));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -1,32 +1,138 @@
 package com.keykomi.webblog.repository;
 
+import com.keykomi.webblog.dto.ArticleSummary;
+import com.keykomi.webblog.dto.TagCount;
 import com.keykomi.webblog.entity.Article;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ArticleRepository extends JpaRepository<Article, Long> {
+public interface ArticleRepository extends JpaRepository<Article, Long>, ArticlePatchRepository,
+        ArticleProjectionRepository {
 
+    // Поиск отдает только id в порядке релевантности, сами статьи догружаются проекцией.
+    // search_vector хранится в таблице (триггеры), индекс idx_articles_search_vector (GIN).
+    // Без count: total считает PageTotals по своей стратегии
     @Query(value = """
-            SELECT * FROM articles
-            WHERE to_tsvector('russian', coalesce(title, '') || ' ' || coalesce(content, ''))
-                @@ websearch_to_tsquery('russian', :q)
-            ORDER BY ts_rank_cd(
-                     to_tsvector('russian', coalesce(title, '') || ' ' || coalesce(content, '')),
-                     websearch_to_tsquery('russian', :q)
-            ) DESC
+            SELECT id FROM articles
+            WHERE search_vector @@ websearch_to_tsquery('russian', :q)
+            ORDER BY ts_rank_cd(search_vector, websearch_to_tsquery('russian', :q)) DESC, id DESC
             """,
-            countQuery = """
+            nativeQuery = true)
+    Slice<Long> search(@Param("q") String q, Pageable pageable);
+
+    @Query(value = """
             SELECT count(*) FROM articles
-            WHERE to_tsvector('russian', coalesce(title, '') || ' ' || coalesce(content, ''))
-                @@ websearch_to_tsquery('russian', :q)
+            WHERE search_vector @@ websearch_to_tsquery('russian', :q)
             """,
             nativeQuery = true)
-    Page<Article> search(@Param("q") String q, Pageable pageable);
+    long countSearch(@Param("q") String q);
+
+    // Slice берет limit + 1 строку, чтобы узнать про следующую страницу, count не выполняется.
+    // Порядок как у ленты по курсору: без ORDER BY OFFSET-страницы могли бы повторяться и терять строки
+    @Query("""
+            SELECT new com.keykomi.webblog.dto.ArticleSummary(
+                   a.id, a.title, a.excerpt, a.readCount, a.publishedAt, a.imageUrl, a.imageWidths, a.author)
+            FROM Article a
+            ORDER BY a.publishedAt DESC, a.id DESC
+            """)
+    Slice<ArticleSummary> findSummarySlice(Pageable pageable);
+
+    @Query("""
+            SELECT new com.keykomi.webblog.dto.ArticleSummary(
+                   a.id, a.title, a.excerpt, a.readCount, a.publishedAt, a.imageUrl, a.imageWidths, a.author)
+            FROM Article a
+            WHERE a.id IN :ids
+            """)
+    List<ArticleSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Фильтр по тегу идет по idx_article_tags_tag, (article_id, tag) уникален - дублей нет
+    @Query("""
+            SELECT new com.keykomi.webblog.dto.ArticleSummary(
+                   a.id, a.title, a.excerpt, a.readCount, a.publishedAt, a.imageUrl, a.imageWidths, a.author)
+            FROM Article a JOIN a.tags t
+            WHERE t = :tag
+            ORDER BY a.publishedAt DESC, a.id DESC
+            """)
+    Slice<ArticleSummary> findSummarySliceByTag(@Param("tag") String tag, Pageable pageable);
+
+    @Query("SELECT count(a) FROM Article a JOIN a.tags t WHERE t = :tag")
+    long countByTag(@Param("tag") String tag);
+
+    // Keyset-пагинация ленты: без OFFSET и count(*), идет по idx_articles_published_at_id.
+    // Статьи без published_at пропускаются: из них не получится курсор (FeedCursor)
+    @Query("""
+            SELECT new com.keykomi.webblog.dto.ArticleSummary(
+                   a.id, a.title, a.excerpt, a.readCount, a.publishedAt, a.imageUrl, a.imageWidths, a.author)
+            FROM Article a
+            WHERE a.publishedAt IS NOT NULL
+            ORDER BY a.publishedAt DESC, a.id DESC
+            """)
+    List<ArticleSummary> findFeedFirst(Limit limit);
+
+    @Query("""
+            SELECT new com.keykomi.webblog.dto.ArticleSummary(
+                   a.id, a.title, a.excerpt, a.readCount, a.publishedAt, a.imageUrl, a.imageWidths, a.author)
+            FROM Article a
+            WHERE a.publishedAt IS NOT NULL AND (a.publishedAt, a.id) < (:publishedAt, :id)
+            ORDER BY a.publishedAt DESC, a.id DESC
+            """)
+    List<ArticleSummary> findFeedAfter(@Param("publishedAt") LocalDateTime publishedAt,
+                                       @Param("id") Long id,
+                                       Limit limit);
+
+    // Теги для целой страницы одним запросом
+    @Query("SELECT a.id AS articleId, t AS tag FROM Article a JOIN a.tags t WHERE a.id IN :ids")
+    List<ArticleTagView> findTagsByArticleIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.keykomi.webblog.dto.TagCount(t, count(a))
+            FROM Article a JOIN a.tags t
+            GROUP BY t
+            ORDER BY count(a) DESC, t
+            """)
+    List<TagCount> findTagCounts();
+
+    // Полные статьи по списку id (GET /api/articles/batch), теги - отдельно через findTagsByArticleIdIn
+    @Query("SELECT a FROM Article a WHERE a.id IN :ids")
+    List<Article> findByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Статья вместе с тегами одним запросом
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT a FROM Article a WHERE a.id = :id")
+    Optional<Article> findWithTagsById(@Param("id") Long id);
+
+    @Query("SELECT coalesce(a.readCount, 0) FROM Article a WHERE a.id = :id")
+    Optional<Long> findReadCountById(@Param("id") Long id);
+
+    // Созданные уменьшенные копии картинки (см. ArticleService.imageVariantsReady), пусто - вариантов нет
+    @Query(value = "SELECT widths FROM image_variants WHERE image_url = :imageUrl", nativeQuery = true)
+    Optional<String> findImageWidths(@Param("imageUrl") String imageUrl);
+
+    // URL оригинала уникален (id загрузки в ключе), генерация для него выполняется один раз
+    @Modifying
+    @Query(value = "INSERT INTO image_variants (image_url, widths) VALUES (:imageUrl, :widths)", nativeQuery = true)
+    void saveImageWidths(@Param("imageUrl") String imageUrl, @Param("widths") String widths);
+
+    @Query("SELECT a.id FROM Article a WHERE a.imageUrl = :imageUrl")
+    List<Long> findIdsByImageUrl(@Param("imageUrl") String imageUrl);
+
+    // updated_at двигается, чтобы сменился ETag; version не трогаем - содержимое не редактировали
+    @Modifying
+    @Query("UPDATE Article a SET a.imageWidths = :widths, a.updatedAt = :updatedAt WHERE a.id IN :ids")
+    void updateImageWidths(@Param("ids") Collection<Long> ids,
+                           @Param("widths") String widths,
+                           @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,10 @@
+package com.keykomi.webblog.repository;
+
+/**
+ * Пара (статья, тег) для пакетной загрузки тегов
+ */
+public interface ArticleTagView {
+    Long getArticleId();
+
+    String getTag();
+}
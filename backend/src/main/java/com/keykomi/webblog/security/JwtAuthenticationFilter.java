@@ -1,5 +1,6 @@
 package com.keykomi.webblog.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,8 +41,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = extractTokenFromRequest(request);
 
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String username = jwtTokenProvider.getUsernameFromToken(token);
+            // Один разбор и одна проверка подписи на запрос (или попадание в кэш проверенных токенов)
+            Claims claims = StringUtils.hasText(token) ? jwtTokenProvider.parseAndVerify(token) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
 
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     try {
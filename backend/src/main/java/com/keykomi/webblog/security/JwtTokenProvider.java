@@ -1,17 +1,27 @@
 package com.keykomi.webblog.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SecurityException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 
 @Component
@@ -21,15 +31,39 @@ public class JwtTokenProvider {
 
     private final SecretKey secretKey;
     private final long jwtExpirationInMs;
+    private final Clock clock;
 
+    // Парсер неизменяемый и потокобезопасный, собираем один раз
+    private final JwtParser parser;
+
+    // SHA-256 токена -> уже проверенные claims, запись живет не дольше срока токена
+    private final Cache<String, Claims> verifiedTokens;
+
+    @Autowired
     public JwtTokenProvider(@Value("${app.jwt.secret}") String jwtSecret,
-                            @Value("${app.jwt.expiration-ms}") long jwtExpirationInMs) {
+                            @Value("${app.jwt.expiration-ms}") long jwtExpirationInMs,
+                            @Value("${app.jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize,
+                            @Value("${app.jwt.verified-cache.ttl:10m}") Duration verifiedCacheTtl) {
+        this(jwtSecret, jwtExpirationInMs, verifiedCacheMaxSize, verifiedCacheTtl, Clock.systemUTC());
+    }
+
+    JwtTokenProvider(String jwtSecret, long jwtExpirationInMs, long verifiedCacheMaxSize,
+                     Duration verifiedCacheTtl, Clock clock) {
         this.secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
         this.jwtExpirationInMs = jwtExpirationInMs;
+        this.clock = clock;
+        this.parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new ClaimsExpiry(verifiedCacheTtl, clock))
+                .build();
     }
 
     public String generateToken(String username) {
-        Instant now = Instant.now();
+        Instant now = clock.instant();
         Instant expiryDate = now.plus(jwtExpirationInMs, ChronoUnit.MILLIS);
 
         return Jwts.builder()
@@ -40,36 +74,32 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
+    /**
+     * Разбирает и проверяет токен один раз.
+     * Недавно проверенные токены берутся из кэша без повторной HMAC-проверки.
+     *
+     * @return claims или null, если токен невалиден или истек
+     */
+    public Claims parseAndVerify(String token) {
         if (!StringUtils.hasText(token)) {
             return null;
         }
 
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            return claims.getSubject();
-        } catch (JwtException | IllegalArgumentException e) {
-            logger.warn("Failed to extract username from token: {}", e.getMessage());
-            return null;
-        }
-    }
-
-    public boolean validateToken(String authToken) {
-        if (!StringUtils.hasText(authToken)) {
-            return false;
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (isExpired(cached)) {
+                verifiedTokens.invalidate(digest);
+                logger.warn("Expired JWT token");
+                return null;
+            }
+            return cached;
         }
 
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(digest, claims);
+            return claims;
         } catch (SecurityException ex) {
             logger.warn("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -78,13 +108,63 @@ public class JwtTokenProvider {
             logger.warn("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             logger.warn("Unsupported JWT token");
-        } catch (IllegalArgumentException ex) {
-            logger.warn("JWT claims string is empty");
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.warn("Failed to parse JWT token: {}", ex.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getUsernameFromToken(String token) {
+        Claims claims = parseAndVerify(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean validateToken(String authToken) {
+        return parseAndVerify(authToken) != null;
     }
 
     public long getExpirationTime() {
         return jwtExpirationInMs;
     }
-}
\ No newline at end of file
+
+    private boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.toInstant().isBefore(clock.instant());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Запись живет до истечения токена, но не дольше maxTtl
+     */
+    private record ClaimsExpiry(Duration maxTtl, Clock clock) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long ttl = maxTtl.toNanos();
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                long untilExpiry = Duration.between(clock.instant(), expiration.toInstant()).toNanos();
+                ttl = Math.max(0, Math.min(ttl, untilExpiry));
+            }
+            return ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.keykomi.webblog.security;
+
+import com.keykomi.webblog.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Сбрасывает закэшированный принципал при изменении или удалении пользователя.
+ * Экземпляр создает Hibernate через SpringBeanContainer; кэш берется через ObjectProvider,
+ * чтобы контексты без него (JPA-слайсы в тестах) тоже поднимались
+ */
+public class UserCacheEvictionListener {
+
+    private final ObjectProvider<UserPrincipalCache> userPrincipalCache;
+
+    public UserCacheEvictionListener(ObjectProvider<UserPrincipalCache> userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        userPrincipalCache.ifAvailable(cache -> cache.evictUser(user.getId()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.keykomi.webblog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кэш принципалов для JWT-фильтра: без него каждый авторизованный запрос
+ * делает findByUsernameOrMail. Ключ - логин (username или mail) из токена.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, UserDetailsImpl> cache;
+
+    public UserPrincipalCache(MeterRegistry meterRegistry,
+                              @Value("${app.security.principal-cache.max-size:1000}") long maxSize,
+                              @Value("${app.security.principal-cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userPrincipals");
+    }
+
+    public UserDetailsImpl get(String login, Function<String, UserDetailsImpl> loader) {
+        return cache.get(login, loader);
+    }
+
+    /**
+     * Сбросить все записи пользователя (он мог быть закэширован и по username, и по mail)
+     */
+    public void evictUser(Long userId) {
+        cache.asMap().values().removeIf(user -> user.getId().equals(userId));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
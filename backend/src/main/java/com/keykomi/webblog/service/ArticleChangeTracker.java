@@ -0,0 +1,23 @@
+package com.keykomi.webblog.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поколение данных статей. ArticleService увеличивает его на каждое изменение,
+ * кэши включают поколение в ключ, и старые записи просто перестают находиться.
+ */
+@Component
+public class ArticleChangeTracker {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void markChanged() {
+        generation.incrementAndGet();
+    }
+}
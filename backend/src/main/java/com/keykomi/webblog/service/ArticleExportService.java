@@ -0,0 +1,172 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.ArticleSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Потоковая выгрузка статей: строки читаются JDBC-курсором с фиксированным fetch size
+ * и сразу пишутся в ответ, в памяти не держится больше одной пачки.
+ */
+@Service
+public class ArticleExportService {
+
+    private static final String SUMMARIES_SQL = """
+            SELECT a.id, a.title, a.excerpt, a.read_count, a.published_at, a.image_url, a.image_widths, a.author,
+                   (SELECT array_agg(t.tag) FROM article_tags t WHERE t.article_id = a.id) AS tags
+            FROM articles a
+            ORDER BY a.id
+            """;
+
+    private static final String ARTICLES_SQL = """
+            SELECT a.id, a.title, a.content, a.read_count, a.published_at, a.updated_at, a.image_url, a.image_widths,
+                   a.author,
+                   (SELECT array_agg(t.tag) FROM article_tags t WHERE t.article_id = a.id) AS tags
+            FROM articles a
+            ORDER BY a.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadCountAggregator readCountAggregator;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public ArticleExportService(JdbcTemplate jdbcTemplate,
+                                ReadCountAggregator readCountAggregator,
+                                ObjectMapper objectMapper,
+                                @Value("${app.export.fetch-size:500}") int fetchSize) {
+        // Отдельный JdbcTemplate, чтобы fetch size не влиял на остальные запросы
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readCountAggregator = readCountAggregator;
+        this.objectMapper = objectMapper;
+        // Без flush после каждой статьи, буферизацию оставляем контейнеру
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * JSON-массив ArticleSummary, формат /api/articles/all.
+     * Транзакция нужна Postgres: без нее драйвер игнорирует fetch size и читает все сразу
+     */
+    @Transactional(readOnly = true)
+    public void writeSummaries(OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartArray();
+            jdbcTemplate.query(SUMMARIES_SQL, rs -> write(generator, mapSummary(rs)));
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Полные статьи в NDJSON: одна ArticleDTO на строку
+     */
+    @Transactional(readOnly = true)
+    public void writeArticlesNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            jdbcTemplate.query(ARTICLES_SQL, rs -> {
+                write(generator, mapArticle(rs));
+                writeLineSeparator(generator);
+            });
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // Поток закрывает контейнер, а между NDJSON-строками разделитель пишем сами
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private void write(JsonGenerator generator, Object value) {
+        try {
+            writer.writeValue(generator, value);
+        } catch (IOException e) {
+            // Клиент оборвал соединение - прекращаем чтение курсора
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLineSeparator(JsonGenerator generator) {
+        try {
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ArticleSummary mapSummary(ResultSet rs) throws SQLException {
+        ArticleSummary summary = new ArticleSummary();
+
+        summary.setId(rs.getLong("id"));
+        summary.setTitle(rs.getString("title"));
+        summary.setExcerpt(rs.getString("excerpt"));
+        summary.setReadCount(readCount(rs, summary.getId()));
+        summary.setPublishedAt(toLocalDateTime(rs.getTimestamp("published_at")));
+        summary.setImageUrl(rs.getString("image_url"));
+        summary.setImageWidths(rs.getString("image_widths"));
+        summary.setAuthor(rs.getString("author"));
+        summary.setTags(tags(rs.getArray("tags")));
+
+        return summary;
+    }
+
+    private ArticleDTO mapArticle(ResultSet rs) throws SQLException {
+        ArticleDTO dto = new ArticleDTO();
+
+        dto.setId(rs.getLong("id"));
+        dto.setTitle(rs.getString("title"));
+        dto.setContent(rs.getString("content"));
+        dto.setReadCount(readCount(rs, dto.getId()));
+        dto.setPublishedAt(toLocalDateTime(rs.getTimestamp("published_at")));
+        dto.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        dto.setImageUrl(rs.getString("image_url"));
+        dto.setImageWidths(rs.getString("image_widths"));
+        dto.setAuthor(rs.getString("author"));
+        dto.setTags(tags(rs.getArray("tags")));
+
+        return dto;
+    }
+
+    private Long readCount(ResultSet rs, Long id) throws SQLException {
+        long readCount = rs.getLong("read_count");
+        return readCountAggregator.estimate(id, rs.wasNull() ? null : readCount);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static List<String> tags(Array array) throws SQLException {
+        if (array == null) {
+            return new ArrayList<>();
+        }
+        try {
+            Object[] values = (Object[]) array.getArray();
+            List<String> tags = new ArrayList<>(values.length);
+            Arrays.stream(values).map(String::valueOf).forEach(tags::add);
+            return tags;
+        } finally {
+            array.free();
+        }
+    }
+}
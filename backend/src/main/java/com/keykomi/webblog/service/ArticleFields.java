@@ -0,0 +1,105 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.keykomi.webblog.exception.BadRequestException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Разреженный набор полей статьи (?fields=id,title): какие свойства ArticleDTO / ArticleSummary
+ * попадут в JSON и какие колонки читать из БД. Имена - как в JSON, только из ALLOWED; id отдается всегда.
+ * Без fields - все поля, как раньше
+ */
+public final class ArticleFields {
+
+    /**
+     * Id фильтра Jackson на DTO статей (JacksonConfig)
+     */
+    public static final String FILTER_ID = "articleFields";
+
+    public static final String CONTENT = "content";
+    public static final String TAGS = "tags";
+
+    private static final Set<String> ALLOWED = Set.of(
+            "id", "title", CONTENT, "excerpt", "read_count", "published_at", "updated_at",
+            "image_url", "image_srcset", TAGS, "author", "version");
+
+    public static final ArticleFields ALL = new ArticleFields(null);
+
+    // null - все поля; отсортированы, чтобы ключ кэша не зависел от порядка в запросе
+    private final Set<String> names;
+
+    private ArticleFields(Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * @throws BadRequestException для поля не из списка
+     */
+    public static ArticleFields parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return ALL;
+        }
+
+        Set<String> names = new TreeSet<>();
+        names.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALLOWED.contains(name)) {
+                throw new BadRequestException("Unknown field: " + name + ", allowed: "
+                        + String.join(",", new TreeSet<>(ALLOWED)));
+            }
+            names.add(name);
+        }
+        return new ArticleFields(Collections.unmodifiableSet(names));
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    /**
+     * Часть ключа кэша готовых тел: пустая строка для всех полей
+     */
+    public String key() {
+        return names == null ? "" : String.join(",", names);
+    }
+
+    /**
+     * Тело ответа с фильтром свойств; для всех полей - без изменений
+     */
+    public Object apply(Object body) {
+        if (names == null) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(FILTER_ID,
+                SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        return value;
+    }
+
+    // Часть ключа кэша поиска
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ArticleFields other && Objects.equals(names, other.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(names);
+    }
+}
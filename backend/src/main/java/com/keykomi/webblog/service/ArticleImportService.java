@@ -0,0 +1,206 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.BulkImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Массовый импорт статей (POST /api/articles/bulk) мимо Hibernate: Article.id - IDENTITY,
+ * такие вставки Hibernate не пакетирует. Статьи читаются из потока по одной (JSON-массив или NDJSON),
+ * копятся до app.articles.bulk.batch-size и пишутся JDBC-пачками:
+ * id пачки резервируются одним запросом к последовательности articles, затем batchUpdate статей и тегов.
+ * Каждая пачка - своя транзакция: ошибка БД откатывает пачку целиком, предыдущие остаются.
+ * Статьи, не прошедшие проверку, в пачку не попадают и возвращаются в errors
+ */
+@Service
+public class ArticleImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleImportService.class);
+
+    private static final String DEFAULT_AUTHOR = "KeykoMI";
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('articles', 'id')) FROM generate_series(1, ?)";
+    // image_widths - из image_variants: srcset только у картинок, для которых варианты созданы
+    private static final String INSERT_ARTICLE_SQL = """
+            INSERT INTO articles (id, title, content, excerpt, read_count, published_at, updated_at, image_url,
+                                  image_widths, author)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, (SELECT widths FROM image_variants WHERE image_url = ?), ?)
+            """;
+    private static final int[] ARTICLE_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT,
+            Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR
+    };
+    private static final String INSERT_TAG_SQL = "INSERT INTO article_tags (article_id, tag) VALUES (?, ?)";
+    private static final int[] TAG_TYPES = {Types.BIGINT, Types.VARCHAR};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArticleChangeTracker changeTracker;
+    private final ObjectReader reader;
+    private final int batchSize;
+    private final int maxItems;
+
+    public ArticleImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ArticleChangeTracker changeTracker,
+                                ObjectMapper objectMapper,
+                                @Value("${app.articles.bulk.batch-size:500}") int batchSize,
+                                @Value("${app.articles.bulk.max-items:100000}") int maxItems) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeTracker = changeTracker;
+        this.reader = objectMapper.readerFor(ArticleDTO.class);
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Читает статьи из body до конца потока. Битый JSON останавливает чтение:
+     * записанные пачки и прочитанный хвост сохраняются, ошибка приходит с индексом места разбора
+     */
+    public BulkImportResult importArticles(InputStream body) throws IOException {
+        List<BulkImportResult.ItemError> errors = new ArrayList<>();
+        List<Item> batch = new ArrayList<>(batchSize);
+        int received = 0;
+        int imported = 0;
+
+        // readValues сам разворачивает корневой массив, NDJSON читается как последовательность значений.
+        // Он же читает первый токен, поэтому мусор или обрыв в самом начале - та же ошибка разбора, с индексом 0
+        try (MappingIterator<ArticleDTO> items = reader.readValues(body)) {
+            while (items.hasNextValue()) {
+                ArticleDTO dto = items.nextValue();
+
+                if (received == maxItems) {
+                    errors.add(new BulkImportResult.ItemError(received, "Too many articles, limit is " + maxItems));
+                    break;
+                }
+                int index = received++;
+
+                String problem = validate(dto);
+                if (problem != null) {
+                    errors.add(new BulkImportResult.ItemError(index, problem));
+                    continue;
+                }
+                batch.add(new Item(index, dto));
+                if (batch.size() == batchSize) {
+                    imported += writeBatch(batch, errors);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            errors.add(new BulkImportResult.ItemError(received, "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        if (!batch.isEmpty()) {
+            imported += writeBatch(batch, errors);
+        }
+
+        return new BulkImportResult(received, imported, received - imported, errors);
+    }
+
+    private int writeBatch(List<Item> batch, List<BulkImportResult.ItemError> errors) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+        } catch (DataAccessException | TransactionException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            logger.warn("Bulk import batch of {} failed: {}", batch.size(), cause);
+            String message = "Batch rejected: " + cause;
+            for (Item item : batch) {
+                errors.add(new BulkImportResult.ItemError(item.index(), message));
+            }
+            return 0;
+        }
+        changeTracker.markChanged();
+        return batch.size();
+    }
+
+    private void insert(List<Item> batch) {
+        // Пул id на всю пачку одним запросом, вместо RETURNING id на каждую статью
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, batch.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> articles = new ArrayList<>(batch.size());
+        List<Object[]> tags = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Long id = ids.get(i);
+            ArticleDTO dto = batch.get(i).dto();
+            articles.add(new Object[]{
+                    id,
+                    dto.getTitle(),
+                    dto.getContent(),
+                    ArticleService.buildExcerpt(dto.getContent()),
+                    dto.getReadCount() != null ? dto.getReadCount() : 0L,
+                    dto.getPublishedAt() != null ? Timestamp.valueOf(dto.getPublishedAt()) : now,
+                    now,
+                    dto.getImageUrl(),
+                    dto.getImageUrl(),
+                    dto.getAuthor() != null ? dto.getAuthor() : DEFAULT_AUTHOR
+            });
+            if (dto.getTags() != null) {
+                // (article_id, tag) - первичный ключ, повторы внутри статьи отбрасываем
+                for (String tag : new LinkedHashSet<>(dto.getTags())) {
+                    tags.add(new Object[]{id, tag});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ARTICLE_SQL, articles, ARTICLE_TYPES);
+        if (!tags.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG_SQL, tags, TAG_TYPES);
+        }
+    }
+
+    // Ограничения те же, что у колонок articles / article_tags
+    private static String validate(ArticleDTO dto) {
+        if (dto == null) {
+            return "Article is null";
+        }
+        if (dto.getTitle() == null || dto.getTitle().isBlank()) {
+            return "title is required";
+        }
+        if (dto.getTitle().length() > 255) {
+            return "title is longer than 255 characters";
+        }
+        if (dto.getContent() == null) {
+            return "content is required";
+        }
+        if (dto.getImageUrl() != null && dto.getImageUrl().length() > 500) {
+            return "image_url is longer than 500 characters";
+        }
+        if (dto.getAuthor() != null && dto.getAuthor().length() > 100) {
+            return "author is longer than 100 characters";
+        }
+        if (dto.getTags() != null) {
+            for (String tag : dto.getTags()) {
+                if (tag == null || tag.isBlank() || tag.length() > 100) {
+                    return "tags must be non-empty and at most 100 characters";
+                }
+            }
+        }
+        return null;
+    }
+
+    private record Item(int index, ArticleDTO dto) {
+    }
+}
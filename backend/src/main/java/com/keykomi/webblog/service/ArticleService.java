@@ -1,103 +1,454 @@
 package com.keykomi.webblog.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.keykomi.webblog.dto.ArticleBatchResponse;
 import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.ArticleSummary;
+import com.keykomi.webblog.dto.CursorPage;
+import com.keykomi.webblog.dto.TagCount;
 import com.keykomi.webblog.entity.Article;
+import com.keykomi.webblog.exception.BadRequestException;
 import com.keykomi.webblog.repository.ArticleRepository;
+import com.keykomi.webblog.repository.ArticleTagView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class ArticleService {
+    private static final int EXCERPT_LENGTH = 300;
+    private static final Pattern MARKDOWN_IMAGE = Pattern.compile("!\\[[^\\]]*]\\([^)]*\\)");
+    private static final Pattern MARKDOWN_LINK = Pattern.compile("\\[([^\\]]*)]\\([^)]*\\)");
+    private static final Pattern MARKDOWN_SYMBOLS = Pattern.compile("[#*_`>~|]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final ArticleRepository articleRepository;
+    private final ReadCountAggregator readCountAggregator;
+    private final ArticleChangeTracker changeTracker;
+    private final TrendingService trendingService;
+    private final PageTotals pageTotals;
+    private final int batchMaxSize;
+
+    // Read-through кэш GET /api/articles/{id}, сбрасывается при update/patch/delete
+    private final Cache<Long, ArticleDTO> articleCache;
 
-    public ArticleService(ArticleRepository articleRepository) {
+    public ArticleService(ArticleRepository articleRepository,
+                          ReadCountAggregator readCountAggregator,
+                          ArticleChangeTracker changeTracker,
+                          TrendingService trendingService,
+                          PageTotals pageTotals,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.articles.cache.max-size:500}") long cacheMaxSize,
+                          @Value("${app.articles.cache.ttl:10m}") Duration cacheTtl,
+                          @Value("${app.articles.batch.max-size:100}") int batchMaxSize) {
         this.articleRepository = articleRepository;
+        this.readCountAggregator = readCountAggregator;
+        this.changeTracker = changeTracker;
+        this.trendingService = trendingService;
+        this.pageTotals = pageTotals;
+        this.batchMaxSize = batchMaxSize;
+        this.articleCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, articleCache, "articleById");
+    }
+
+    /**
+     * Страница ленты; total - по стратегии PageTotals. На неполной странице total известен
+     * и без подсчета (как в Spring Data)
+     */
+    public Page<ArticleSummary> getArticlesByPage(int page, int limit) {
+        return getArticlesByPage(page, limit, ArticleFields.ALL);
+    }
+
+    /**
+     * Без tags в fields запрос тегов не выполняется, остальные поля режет Jackson (ArticleFields.apply)
+     */
+    public Page<ArticleSummary> getArticlesByPage(int page, int limit, ArticleFields fields) {
+        Pageable pageable = PageRequest.of(page - 1, limit);
+        Slice<ArticleSummary> summaries = articleRepository.findSummarySlice(pageable);
+        attachTags(summaries.getContent(), fields);
+        return PageableExecutionUtils.getPage(summaries.getContent(), pageable,
+                () -> pageTotals.feedTotal(articleRepository::count));
     }
 
-    public Page<ArticleDTO> getArticlesByPage(int page, int limit) {
+    /**
+     * Страница ленты без total: только has_next, count не выполняется ни в какой стратегии
+     */
+    public Slice<ArticleSummary> getArticleSliceByPage(int page, int limit) {
+        return getArticleSliceByPage(page, limit, ArticleFields.ALL);
+    }
+
+    public Slice<ArticleSummary> getArticleSliceByPage(int page, int limit, ArticleFields fields) {
+        Slice<ArticleSummary> summaries = articleRepository.findSummarySlice(PageRequest.of(page - 1, limit));
+        attachTags(summaries.getContent(), fields);
+        return summaries;
+    }
+
+    public Page<ArticleSummary> getArticlesByTag(String tag, int page, int limit) {
+        return getArticlesByTag(tag, page, limit, ArticleFields.ALL);
+    }
+
+    public Page<ArticleSummary> getArticlesByTag(String tag, int page, int limit, ArticleFields fields) {
         Pageable pageable = PageRequest.of(page - 1, limit);
-        return articleRepository.findAll(pageable)
-            .map(this::toDTO);
+        Slice<ArticleSummary> summaries = articleRepository.findSummarySliceByTag(tag, pageable);
+        attachTags(summaries.getContent(), fields);
+        return PageableExecutionUtils.getPage(summaries.getContent(), pageable,
+                () -> pageTotals.tagTotal(tag, () -> articleRepository.countByTag(tag)));
+    }
+
+    public Slice<ArticleSummary> getArticleSliceByTag(String tag, int page, int limit) {
+        return getArticleSliceByTag(tag, page, limit, ArticleFields.ALL);
+    }
+
+    public Slice<ArticleSummary> getArticleSliceByTag(String tag, int page, int limit, ArticleFields fields) {
+        Slice<ArticleSummary> summaries = articleRepository.findSummarySliceByTag(tag, PageRequest.of(page - 1, limit));
+        attachTags(summaries.getContent(), fields);
+        return summaries;
+    }
+
+    public List<TagCount> getTagCounts() {
+        return articleRepository.findTagCounts();
+    }
+
+    /**
+     * Лента по курсору: seek по (published_at, id) вместо OFFSET, без count(*)
+     */
+    public CursorPage<ArticleSummary> getArticlesAfter(String after, int limit) {
+        return getArticlesAfter(after, limit, ArticleFields.ALL);
+    }
+
+    public CursorPage<ArticleSummary> getArticlesAfter(String after, int limit, ArticleFields fields) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        FeedCursor cursor = FeedCursor.decode(after);
+
+        // Берем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<ArticleSummary> articles = cursor == null
+                ? articleRepository.findFeedFirst(Limit.of(limit + 1))
+                : articleRepository.findFeedAfter(cursor.publishedAt(), cursor.id(), Limit.of(limit + 1));
+
+        String nextCursor = null;
+        if (articles.size() > limit) {
+            articles = articles.subList(0, limit);
+            ArticleSummary last = articles.get(limit - 1);
+            nextCursor = new FeedCursor(last.getPublishedAt(), last.getId()).encode();
+        }
+
+        attachTags(articles, fields);
+        return new CursorPage<>(articles, nextCursor, limit);
+    }
+
+    /**
+     * Рейтинг trending за окно: id берутся из готового top-K (не больше app.trending.top-k),
+     * статьи - одним запросом по id
+     */
+    public List<ArticleSummary> getTrending(String window, int limit) {
+        return getTrending(window, limit, ArticleFields.ALL);
+    }
+
+    public List<ArticleSummary> getTrending(String window, int limit, ArticleFields fields) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        return getSummariesByIds(trendingService.topIds(window, limit), fields);
+    }
+
+    /**
+     * Краткие версии статей в порядке переданных id, отсутствующие пропускаются
+     */
+    public List<ArticleSummary> getSummariesByIds(List<Long> ids) {
+        return getSummariesByIds(ids, ArticleFields.ALL);
     }
 
-    public List<ArticleDTO> getAllArticles() {
-        return articleRepository.findAll()
-                .stream()
-                .map(this::toDTO)
+    public List<ArticleSummary> getSummariesByIds(List<Long> ids, ArticleFields fields) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, ArticleSummary> byId = articleRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ArticleSummary::getId, Function.identity()));
+
+        List<ArticleSummary> ordered = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        attachTags(ordered, fields);
+        return ordered;
     }
 
     public ArticleDTO getArticleById(Long id) {
-        Article article = articleRepository.findById(id)
+        return withCurrentReadCount(articleCache.get(id, this::loadArticle));
+    }
+
+    /**
+     * Без content в fields статья полностью не грузится: из кэша, если уже там,
+     * иначе SELECT только нужных колонок (в кэш такой неполный DTO не кладется)
+     */
+    public ArticleDTO getArticleById(Long id, ArticleFields fields) {
+        if (fields.includes(ArticleFields.CONTENT)) {
+            return getArticleById(id);
+        }
+        ArticleDTO article = findPartial(List.of(id), fields).get(id);
+        if (article == null) {
+            throw new RuntimeException("Article not found: " + id);
+        }
+        return article;
+    }
+
+    private ArticleDTO loadArticle(Long id) {
+        Article article = articleRepository.findWithTagsById(id)
             .orElseThrow(() -> new RuntimeException("Article not found: " + id));
         return toDTO(article);
     }
 
+    /**
+     * Полные статьи в порядке ids (повторы схлопываются), не найденные - в missing.
+     * Попадания берутся из кэша GET /{id}, промахи - одним запросом статей и одним запросом тегов
+     */
+    public ArticleBatchResponse getArticlesByIds(List<Long> ids) {
+        return getArticlesByIds(ids, ArticleFields.ALL);
+    }
+
+    public ArticleBatchResponse getArticlesByIds(List<Long> ids, ArticleFields fields) {
+        List<Long> unique = ids.stream().distinct().toList();
+        if (unique.size() > batchMaxSize) {
+            throw new BadRequestException("Too many ids, limit is " + batchMaxSize);
+        }
+
+        Map<Long, ArticleDTO> found = fields.includes(ArticleFields.CONTENT)
+                ? articleCache.getAll(unique, this::loadArticles)
+                : findPartial(unique, fields);
+
+        List<ArticleDTO> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : unique) {
+            ArticleDTO article = found.get(id);
+            if (article == null) {
+                missing.add(id);
+            } else {
+                items.add(fields.includes(ArticleFields.CONTENT) ? withCurrentReadCount(article) : article);
+            }
+        }
+        return new ArticleBatchResponse(items, missing);
+    }
+
+    /**
+     * Статьи без content: попадания - копии из кэша, промахи - одним SELECT нужных колонок.
+     * Даты читаются всегда (ETag / Last-Modified), теги - только если запрошены
+     */
+    private Map<Long, ArticleDTO> findPartial(List<Long> ids, ArticleFields fields) {
+        Map<Long, ArticleDTO> found = new HashMap<>();
+        articleCache.getAllPresent(ids).forEach((id, cached) -> found.put(id, withCurrentReadCount(cached)));
+        List<Long> misses = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        List<String> attributes = new ArrayList<>(List.of("id", "publishedAt", "updatedAt"));
+        if (fields.includes("title")) {
+            attributes.add("title");
+        }
+        if (fields.includes("read_count")) {
+            attributes.add("readCount");
+        }
+        if (fields.includes("image_url") || fields.includes("image_srcset")) {
+            attributes.add("imageUrl");
+        }
+        if (fields.includes("image_srcset")) {
+            attributes.add("imageWidths");
+        }
+        if (fields.includes("author")) {
+            attributes.add("author");
+        }
+        if (fields.includes("version")) {
+            attributes.add("version");
+        }
+
+        List<Tuple> rows = articleRepository.findColumnsByIdIn(misses, attributes);
+        Map<Long, List<String>> tags = Map.of();
+        if (fields.includes(ArticleFields.TAGS) && !rows.isEmpty()) {
+            List<Long> foundIds = rows.stream()
+                    .map(row -> row.get("id", Long.class))
+                    .toList();
+            tags = groupTags(articleRepository.findTagsByArticleIdIn(foundIds));
+        }
+
+        for (Tuple row : rows) {
+            Long id = row.get("id", Long.class);
+            ArticleDTO dto = new ArticleDTO();
+            dto.setId(id);
+            dto.setPublishedAt(row.get("publishedAt", LocalDateTime.class));
+            dto.setUpdatedAt(row.get("updatedAt", LocalDateTime.class));
+            if (attributes.contains("title")) {
+                dto.setTitle(row.get("title", String.class));
+            }
+            if (attributes.contains("readCount")) {
+                dto.setReadCount(currentReadCount(id, row.get("readCount", Long.class)));
+            }
+            if (attributes.contains("imageUrl")) {
+                dto.setImageUrl(row.get("imageUrl", String.class));
+            }
+            if (attributes.contains("imageWidths")) {
+                dto.setImageWidths(row.get("imageWidths", String.class));
+            }
+            if (attributes.contains("author")) {
+                dto.setAuthor(row.get("author", String.class));
+            }
+            if (attributes.contains("version")) {
+                dto.setVersion(row.get("version", Long.class));
+            }
+            if (fields.includes(ArticleFields.TAGS)) {
+                dto.setTags(tags.getOrDefault(id, new ArrayList<>()));
+            }
+            found.put(id, dto);
+        }
+        return found;
+    }
+
+    // Отсутствующих id в результате нет - в кэш они не попадают
+    private Map<Long, ArticleDTO> loadArticles(Set<? extends Long> ids) {
+        List<Article> articles = articleRepository.findByIdIn(List.copyOf(ids));
+        if (articles.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<String>> tags = groupTags(articleRepository.findTagsByArticleIdIn(
+                articles.stream().map(Article::getId).toList()));
+
+        Map<Long, ArticleDTO> loaded = new HashMap<>();
+        for (Article article : articles) {
+            loaded.put(article.getId(), toDTO(article, tags.getOrDefault(article.getId(), new ArrayList<>())));
+        }
+        return loaded;
+    }
+
     public ArticleDTO createArticle(ArticleDTO dto) {
         Article article = toEntity(dto);
-        return toDTO(articleRepository.save(article));
+        article.setImageWidths(findImageWidths(dto.getImageUrl()));
+        Article saved = articleRepository.save(article);
+        afterCommit(changeTracker::markChanged);
+        return toDTO(saved);
     }
 
+    /**
+     * Поля статьи - обычный UPDATE через сущность, теги - разностью множеств (ArticleRepository.updateTags)
+     * с уже загруженными текущими: неизменный список тегов не трогает article_tags.
+     * Кэши сбрасываются после коммита
+     */
+    @Transactional
     public ArticleDTO updateArticle(Long id, ArticleDTO dto) {
-        Article existing = articleRepository.findById(id)
+        Article existing = articleRepository.findWithTagsById(id)
             .orElseThrow(() -> new RuntimeException("Article not found: " + id));
+        // Версия, которую видел клиент; внутри транзакции Hibernate сверяет только загруженную
+        if (dto.getVersion() != null && !dto.getVersion().equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Article.class, id);
+        }
 
         existing.setTitle(dto.getTitle());
         existing.setContent(dto.getContent());
+        existing.setExcerpt(buildExcerpt(dto.getContent()));
         existing.setReadCount(dto.getReadCount());
+        if (!Objects.equals(existing.getImageUrl(), dto.getImageUrl())) {
+            existing.setImageWidths(findImageWidths(dto.getImageUrl()));
+        }
         existing.setImageUrl(dto.getImageUrl());
-        existing.setTags(dto.getTags());
         existing.setAuthor(dto.getAuthor());
+        // Явно, чтобы изменение только тегов тоже меняло ETag
+        existing.setUpdatedAt(LocalDateTime.now());
+
+        // Текущие теги загружены вместе со статьей (findWithTagsById), повторно не читаем
+        List<String> current = List.copyOf(existing.getTags());
+        Article saved = articleRepository.saveAndFlush(existing);
+        List<String> tags = dto.getTags() != null ? List.copyOf(new LinkedHashSet<>(dto.getTags())) : List.of();
+        articleRepository.updateTags(id, current, tags);
+        // read_count перезаписан значением клиента (оно уже включает незаписанные инкременты)
+        afterCommit(() -> invalidate(id, true));
 
-        return toDTO(articleRepository.save(existing));
+        // Коллекция сущности не менялась (теги записаны мимо нее), в ответ - новый список
+        ArticleDTO result = toDTO(saved);
+        result.setTags(new ArrayList<>(tags));
+        return result;
     }
 
+    /**
+     * UPDATE только переданных полей, статья (и content) не загружается.
+     * Ответ - id, новые version / updated_at и переданные поля
+     */
     public ArticleDTO partialUpdateArticle(Long id, ArticleDTO dto) {
-        Article existing = articleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Article not found: " + id));
-
+        Map<String, Object> values = new LinkedHashMap<>();
         if (dto.getTitle() != null) {
-            existing.setTitle(dto.getTitle());
+            values.put("title", dto.getTitle());
         }
         if (dto.getContent() != null) {
-            existing.setContent(dto.getContent());
+            values.put("content", dto.getContent());
+            values.put("excerpt", buildExcerpt(dto.getContent()));
         }
         if (dto.getReadCount() != null) {
-            existing.setReadCount(dto.getReadCount());
+            values.put("readCount", dto.getReadCount());
         }
         if (dto.getImageUrl() != null) {
-            existing.setImageUrl(dto.getImageUrl());
-        }
-        if (dto.getTags() != null) {
-            existing.setTags(dto.getTags());
+            values.put("imageUrl", dto.getImageUrl());
+            values.put("imageWidths", findImageWidths(dto.getImageUrl()));
         }
         if (dto.getAuthor() != null) {
-            existing.setAuthor(dto.getAuthor());
+            values.put("author", dto.getAuthor());
         }
+        LocalDateTime updatedAt = LocalDateTime.now();
 
-        return toDTO(articleRepository.save(existing));
-    }
-
-    @Transactional
-    public ArticleDTO incrementReadCount(Long id) {
-        Article article = articleRepository.findById(id)
+        long version = articleRepository.patch(id, values, dto.getTags(), updatedAt, dto.getVersion())
                 .orElseThrow(() -> new RuntimeException("Article not found: " + id));
+        afterCommit(() -> invalidate(id, dto.getReadCount() != null));
 
-        // Инкрементируем счетчик
-        Long newReadCount = (article.getReadCount() != null ? article.getReadCount() : 0L) + 1;
-        article.setReadCount(newReadCount);
-
-        // Сохраняем изменения
-        Article savedArticle = articleRepository.save(article);
+        ArticleDTO result = copyOf(dto);
+        result.setImageWidths((String) values.get("imageWidths"));
+        result.setId(id);
+        result.setPublishedAt(null);
+        result.setUpdatedAt(updatedAt);
+        result.setVersion(version);
+        return result;
+    }
 
-        return toDTO(savedArticle);
+    /**
+     * Инкремент копится в памяти и пишется в БД пачкой (см. ReadCountAggregator),
+     * возвращается оценка текущего значения
+     */
+    public long incrementReadCount(Long id) {
+        long readCount = readCountAggregator.increment(id);
+        trendingService.recordRead(id);
+        return readCount;
     }
 
     public void deleteArticle(Long id) {
@@ -105,28 +456,174 @@ public class ArticleService {
             throw new RuntimeException("Article not found: " + id);
         }
         articleRepository.deleteById(id);
+        afterCommit(() -> {
+            invalidate(id, true);
+            trendingService.remove(id);
+        });
+    }
+
+    /**
+     * Уменьшенные копии картинки созданы (UploadService): набор ширин запоминается для статей,
+     * которые сошлются на нее позже, и проставляется тем, что уже ссылаются.
+     * Статья, сохраненная одновременно с этим, может остаться без srcset - фронт покажет оригинал
+     */
+    @Transactional
+    public void imageVariantsReady(String imageUrl, Map<String, String> srcset) {
+        String widths = ImageVariants.widths(srcset);
+        articleRepository.saveImageWidths(imageUrl, widths);
+
+        List<Long> ids = articleRepository.findIdsByImageUrl(imageUrl);
+        if (ids.isEmpty()) {
+            return;
+        }
+        articleRepository.updateImageWidths(ids, widths, LocalDateTime.now());
+        afterCommit(() -> {
+            articleCache.invalidateAll(ids);
+            changeTracker.markChanged();
+        });
+    }
+
+    private String findImageWidths(String imageUrl) {
+        return imageUrl != null ? articleRepository.findImageWidths(imageUrl).orElse(null) : null;
+    }
+
+    private void invalidate(Long id, boolean readCountChanged) {
+        articleCache.invalidate(id);
+        changeTracker.markChanged();
+        if (readCountChanged) {
+            readCountAggregator.evict(id);
+        }
     }
 
-    private ArticleDTO toDTO(Article article) {
+    /**
+     * Сброс кэшей - только после коммита: до него параллельный GET перечитал бы старую строку
+     * и держал ее в кэше весь TTL (а ленты и total - под новым поколением).
+     * Вне транзакции изменение уже записано, выполняется сразу
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    ArticleDTO toDTO(Article article) {
+        return toDTO(article, article.getTags() != null ? new ArrayList<>(article.getTags()) : null);
+    }
+
+    // Теги переданы отдельно: ленивая коллекция сущности не трогается
+    private ArticleDTO toDTO(Article article, List<String> tags) {
         ArticleDTO dto = new ArticleDTO();
 
         dto.setId(article.getId());
         dto.setTitle(article.getTitle());
         dto.setContent(article.getContent());
-        dto.setReadCount(article.getReadCount());
+        dto.setReadCount(currentReadCount(article.getId(), article.getReadCount()));
         dto.setPublishedAt(article.getPublishedAt());
+        dto.setUpdatedAt(article.getUpdatedAt());
         dto.setImageUrl(article.getImageUrl());
-        dto.setTags(article.getTags());
+        dto.setImageWidths(article.getImageWidths());
+        dto.setTags(tags);
         dto.setAuthor(article.getAuthor());
+        dto.setVersion(article.getVersion());
+
+        return dto;
+    }
 
+    // Отдаем копию: кэшированный объект общий, а read_count меняется без инвалидации
+    private ArticleDTO withCurrentReadCount(ArticleDTO cached) {
+        ArticleDTO dto = copyOf(cached);
+        dto.setReadCount(currentReadCount(cached.getId(), cached.getReadCount()));
         return dto;
     }
 
-    private Article toEntity(ArticleDTO dto) {
+    private ArticleDTO copyOf(ArticleDTO source) {
+        ArticleDTO dto = new ArticleDTO();
+
+        dto.setId(source.getId());
+        dto.setTitle(source.getTitle());
+        dto.setContent(source.getContent());
+        dto.setReadCount(source.getReadCount());
+        dto.setPublishedAt(source.getPublishedAt());
+        dto.setUpdatedAt(source.getUpdatedAt());
+        dto.setImageUrl(source.getImageUrl());
+        dto.setImageWidths(source.getImageWidths());
+        dto.setTags(source.getTags());
+        dto.setAuthor(source.getAuthor());
+        dto.setVersion(source.getVersion());
+
+        return dto;
+    }
+
+    /**
+     * Теги для всей страницы одним запросом вместо запроса на каждую статью;
+     * если tags не запрошены (?fields=), запроса нет вовсе
+     */
+    private void attachTags(List<ArticleSummary> summaries, ArticleFields fields) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<String>> tags = Map.of();
+        if (fields.includes(ArticleFields.TAGS)) {
+            List<Long> ids = summaries.stream()
+                    .map(ArticleSummary::getId)
+                    .collect(Collectors.toList());
+            tags = groupTags(articleRepository.findTagsByArticleIdIn(ids));
+        }
+
+        for (ArticleSummary summary : summaries) {
+            if (fields.includes(ArticleFields.TAGS)) {
+                summary.setTags(tags.getOrDefault(summary.getId(), new ArrayList<>()));
+            }
+            summary.setReadCount(currentReadCount(summary.getId(), summary.getReadCount()));
+        }
+    }
+
+    private Map<Long, List<String>> groupTags(List<ArticleTagView> rows) {
+        Map<Long, List<String>> tags = new HashMap<>();
+        for (ArticleTagView row : rows) {
+            tags.computeIfAbsent(row.getArticleId(), id -> new ArrayList<>()).add(row.getTag());
+        }
+        return tags;
+    }
+
+    /**
+     * Превью для списков: markdown-разметка убирается, текст обрезается по границе слова
+     */
+    static String buildExcerpt(String content) {
+        if (content == null) {
+            return null;
+        }
+
+        String text = MARKDOWN_IMAGE.matcher(content).replaceAll(" ");
+        text = MARKDOWN_LINK.matcher(text).replaceAll("$1");
+        text = MARKDOWN_SYMBOLS.matcher(text).replaceAll("");
+        text = WHITESPACE.matcher(text).replaceAll(" ").trim();
+
+        if (text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', EXCERPT_LENGTH);
+        return text.substring(0, cut > 0 ? cut : EXCERPT_LENGTH) + "…";
+    }
+
+    private Long currentReadCount(Long id, Long readCount) {
+        return readCountAggregator.estimate(id, readCount);
+    }
+
+    Article toEntity(ArticleDTO dto) {
         Article article = new Article();
 
         article.setTitle(dto.getTitle());
         article.setContent(dto.getContent());
+        article.setExcerpt(buildExcerpt(dto.getContent()));
         article.setReadCount(dto.getReadCount());
         article.setImageUrl(dto.getImageUrl());
         article.setTags(dto.getTags());
@@ -0,0 +1,224 @@
+package com.keykomi.webblog.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Уменьшенные копии загруженных изображений (ширины - {@link ImageVariants#WIDTHS}, не шире оригинала, JPEG).
+ * Работа CPU-bound, поэтому идет на своем ограниченном пуле платформенных потоков
+ * с ограниченной очередью: при переполнении задача отклоняется, а не копится в памяти.
+ * Большие оригиналы декодируются с прореживанием (subsampling), полный растр в память не попадает
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final S3AsyncClient s3Client;
+    private final String bucketName;
+    private final String publicUrl;
+    private final float quality;
+    private final long maxDecodedPixels;
+    private final ThreadPoolExecutor executor;
+
+    public ImageVariantService(S3AsyncClient s3Client,
+                               @Value("${app.s3.bucket}") String bucketName,
+                               @Value("${app.s3.public-url:https://storage.yandexcloud.net/${app.s3.bucket}}") String publicUrl,
+                               @Value("${app.uploads.variants.quality:0.8}") float quality,
+                               @Value("${app.uploads.variants.max-decoded-pixels:16000000}") long maxDecodedPixels,
+                               @Value("${app.uploads.variants.pool-size:2}") int poolSize,
+                               @Value("${app.uploads.variants.queue-capacity:50}") int queueCapacity) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.publicUrl = publicUrl;
+        this.quality = quality;
+        this.maxDecodedPixels = maxDecodedPixels;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Ставит генерацию вариантов в очередь. Результат - srcset-карта ("320w" -> URL).
+     * Если очередь заполнена, future сразу завершается с RejectedExecutionException
+     */
+    public CompletableFuture<Map<String, String>> generate(String originalKey) {
+        try {
+            return CompletableFuture.supplyAsync(() -> generateNow(originalKey), executor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Есть ли чем декодировать формат: без плагина ImageIO (WebP) варианты не делаются вовсе
+     */
+    public boolean supports(ImageType type) {
+        return ImageIO.getImageReadersByMIMEType(type.contentType()).hasNext();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Map<String, String> generateNow(String originalKey) {
+        long started = System.nanoTime();
+        BufferedImage source = read(originalKey);
+
+        Map<String, String> srcset = new LinkedHashMap<>();
+        for (int width : targetWidths(source.getWidth())) {
+            String key = ImageVariants.variantKey(originalKey, width);
+            byte[] jpeg = encodeJpeg(resize(source, width));
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .contentType(ImageVariants.VARIANT_CONTENT_TYPE)
+                            .contentLength((long) jpeg.length)
+                            .build(),
+                    AsyncRequestBody.fromBytes(jpeg)).join();
+            srcset.put(width + "w", publicUrl + "/" + key);
+        }
+
+        logger.debug("Generated {} variants for {} in {} ms",
+                srcset.size(), originalKey, (System.nanoTime() - started) / 1_000_000);
+        return srcset;
+    }
+
+    /**
+     * Декодирует оригинал с таким прореживанием, чтобы ширина осталась не меньше самого
+     * большого варианта, и отказывается от изображений, которые и так не влезают в лимит пикселей
+     */
+    private BufferedImage read(String originalKey) {
+        ResponseInputStream<GetObjectResponse> object = s3Client.getObject(
+                GetObjectRequest.builder().bucket(bucketName).key(originalKey).build(),
+                AsyncResponseTransformer.toBlockingInputStream()).join();
+
+        try (object; ImageInputStream input = ImageIO.createImageInputStream(object)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalStateException("Unsupported image format: " + originalKey);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                int largest = ImageVariants.WIDTHS[ImageVariants.WIDTHS.length - 1];
+                int subsampling = Math.max(1, width / largest);
+                long decodedPixels = (long) (width / subsampling) * (height / subsampling);
+                if (decodedPixels > maxDecodedPixels) {
+                    throw new IllegalStateException("Image too large to process: " + width + "x" + height);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ширины, которые реально получатся: без увеличения, поэтому цели шире оригинала пропускаются.
+     * Оригинал уже самой маленькой цели - один вариант в его собственную ширину.
+     * Ключ в srcset - эта ширина: дескриптор должен совпадать с настоящим размером файла
+     */
+    static int[] targetWidths(int sourceWidth) {
+        int[] widths = Arrays.stream(ImageVariants.WIDTHS)
+                .filter(width -> width <= sourceWidth)
+                .toArray();
+        return widths.length > 0 ? widths : new int[]{sourceWidth};
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width) {
+        BufferedImage current = source;
+
+        // Уменьшение вдвое за шаг: bilinear за один шаг на большом коэффициенте дает "лесенку"
+        while (current.getWidth() / 2 >= width) {
+            current = scale(current, current.getWidth() / 2);
+        }
+        return scale(current, width);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Прозрачность PNG/GIF в JPEG не переносится - подкладываем белый фон
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(buffer)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,60 @@
+package com.keykomi.webblog.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Раскладка ключей изображений в S3. Оригинал: articles/{upload}/original.{ext},
+ * уменьшенные копии рядом: articles/{upload}/w320.jpg и т.д.
+ * URL вариантов выводятся из image_url, а набор реально созданных ширин хранится
+ * (image_variants, articles.image_widths): фоновая генерация может и не случиться
+ */
+public final class ImageVariants {
+
+    public static final int[] WIDTHS = {320, 768, 1280};
+    public static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+
+    private static final String ORIGINAL = "original";
+    private static final String VARIANT_EXTENSION = ".jpg";
+    private static final Pattern ORIGINAL_URL = Pattern.compile("^(.*/articles/[^/]+/)" + ORIGINAL + "\\.[a-z]+$");
+
+    private ImageVariants() {
+    }
+
+    public static String originalKey(String uploadId, ImageType type) {
+        return "articles/" + uploadId + "/" + ORIGINAL + type.extension();
+    }
+
+    public static String variantKey(String originalKey, int width) {
+        return originalKey.substring(0, originalKey.lastIndexOf('/') + 1) + "w" + width + VARIANT_EXTENSION;
+    }
+
+    /**
+     * Созданные ширины в том виде, в каком они хранятся: "320w,768w,1280w"
+     */
+    public static String widths(Map<String, String> srcset) {
+        return String.join(",", srcset.keySet());
+    }
+
+    /**
+     * Ширина -> URL ("320w" -> ...) только для созданных вариантов (widths),
+     * null - если вариантов нет (не созданы, картинка загружена до их появления или внешняя)
+     */
+    public static Map<String, String> srcset(String imageUrl, String widths) {
+        if (imageUrl == null || widths == null || widths.isEmpty()) {
+            return null;
+        }
+        Matcher matcher = ORIGINAL_URL.matcher(imageUrl);
+        if (!matcher.matches()) {
+            return null;
+        }
+        Map<String, String> srcset = new LinkedHashMap<>();
+        for (String width : widths.split(",")) {
+            srcset.put(width, matcher.group(1) + "w" + width.substring(0, width.length() - 1) + VARIANT_EXTENSION);
+        }
+        return Collections.unmodifiableMap(srcset);
+    }
+}
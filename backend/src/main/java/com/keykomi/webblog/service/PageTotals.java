@@ -0,0 +1,118 @@
+package com.keykomi.webblog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Общее число строк для постраничных ответов (Page.totalElements, PaginatedResponse.total).
+ * Стратегия - app.pagination.count-strategy:
+ * <ul>
+ *     <li>exact - count(*) на каждый запрос;</li>
+ *     <li>cached - точный count(*), хранится до изменения статей (поколение в ключе) или ttl;</li>
+ *     <li>estimate - оценка планировщика: reltuples для всей ленты, EXPLAIN для тега и поиска.
+ *     Оценка меньше exact-threshold перепроверяется count(*): на малых выборках она врет сильнее всего,
+ *     а точный подсчет там дешевый</li>
+ * </ul>
+ * Ответы без total вообще - Slice-режим (?count=false), сюда он не обращается
+ */
+@Component
+public class PageTotals {
+
+    public enum Strategy {
+        EXACT, CACHED, ESTIMATE
+    }
+
+    private static final String TABLE_ESTIMATE_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'articles'::regclass";
+    private static final String TAG_EXPLAIN_SQL = "EXPLAIN SELECT 1 FROM article_tags WHERE tag = ?";
+    private static final String SEARCH_EXPLAIN_SQL =
+            "EXPLAIN SELECT 1 FROM articles WHERE search_vector @@ websearch_to_tsquery('russian', ?)";
+
+    // Первая строка плана: "Bitmap Heap Scan on articles  (cost=... rows=1234 width=4)"
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArticleChangeTracker changeTracker;
+    private final Strategy strategy;
+    private final long exactThreshold;
+
+    private final Cache<TotalKey, Long> cache;
+
+    public PageTotals(JdbcTemplate jdbcTemplate,
+                      ArticleChangeTracker changeTracker,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.pagination.count-strategy:cached}") String strategy,
+                      @Value("${app.pagination.exact-threshold:1000}") long exactThreshold,
+                      @Value("${app.pagination.cache.max-size:1000}") long maxSize,
+                      @Value("${app.pagination.cache.ttl:10m}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeTracker = changeTracker;
+        this.strategy = Strategy.valueOf(strategy.trim().toUpperCase(Locale.ROOT));
+        this.exactThreshold = exactThreshold;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pageTotals");
+    }
+
+    public Strategy strategy() {
+        return strategy;
+    }
+
+    public long feedTotal(LongSupplier exactCount) {
+        return total("feed", "", exactCount, this::tableRows);
+    }
+
+    public long tagTotal(String tag, LongSupplier exactCount) {
+        return total("tag", tag, exactCount, () -> planRows(TAG_EXPLAIN_SQL, tag));
+    }
+
+    public long searchTotal(String query, LongSupplier exactCount) {
+        return total("search", query, exactCount, () -> planRows(SEARCH_EXPLAIN_SQL, query));
+    }
+
+    private long total(String kind, String value, LongSupplier exactCount, LongSupplier estimate) {
+        return switch (strategy) {
+            case EXACT -> exactCount.getAsLong();
+            case CACHED -> cache.get(new TotalKey(kind, value, changeTracker.generation()),
+                    key -> exactCount.getAsLong());
+            case ESTIMATE -> {
+                long estimated = estimate.getAsLong();
+                yield estimated < exactThreshold ? exactCount.getAsLong() : estimated;
+            }
+        };
+    }
+
+    // reltuples = -1 (или 0), пока таблицу ни разу не анализировали
+    private long tableRows() {
+        Long rows = jdbcTemplate.queryForObject(TABLE_ESTIMATE_SQL, Long.class);
+        return rows != null ? rows : -1;
+    }
+
+    // -1, если план не разобрался - тогда считаем точно
+    private long planRows(String sql, String parameter) {
+        String firstLine = jdbcTemplate.query(sql, rs -> rs.next() ? rs.getString(1) : null, parameter);
+        if (firstLine == null) {
+            return -1;
+        }
+        Matcher matcher = PLAN_ROWS.matcher(firstLine);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private record TotalKey(String kind, String value, long generation) {
+    }
+}
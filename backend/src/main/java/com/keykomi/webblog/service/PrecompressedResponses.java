@@ -0,0 +1,170 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Готовые тела ответов: JSON уже сериализован и сжат gzip, на запрос отдаются байты как есть.
+ * Используется для первых страниц ленты и популярных статей (см. ArticleController).
+ * Ключ включает поколение статей или updated_at, поэтому после изменения статьи
+ * тело пересобирается при следующем запросе. read_count внутри может отставать на ttl
+ */
+@Component
+public class PrecompressedResponses {
+
+    private final ObjectMapper objectMapper;
+    private final ArticleChangeTracker changeTracker;
+    private final boolean enabled;
+    private final int feedPages;
+    private final int minGzipSize;
+
+    private final Cache<String, CompressedBody> cache;
+
+    public PrecompressedResponses(ObjectMapper objectMapper,
+                                  ArticleChangeTracker changeTracker,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.precompressed.enabled:true}") boolean enabled,
+                                  @Value("${app.precompressed.feed-pages:5}") int feedPages,
+                                  @Value("${app.precompressed.min-gzip-size:512B}") DataSize minGzipSize,
+                                  @Value("${app.precompressed.max-size:32MB}") DataSize maxSize,
+                                  @Value("${app.precompressed.ttl:30s}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.changeTracker = changeTracker;
+        this.enabled = enabled;
+        this.feedPages = feedPages;
+        this.minGzipSize = (int) minGzipSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CompressedBody body) -> body.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "precompressedResponses");
+    }
+
+    public boolean coversFeedPage(int page) {
+        return enabled && page >= 1 && page <= feedPages;
+    }
+
+    public ResponseEntity<?> feedPage(int page, int limit, String acceptEncoding, Supplier<?> body) {
+        return feedPage(page, limit, ArticleFields.ALL, acceptEncoding, body);
+    }
+
+    // Каждый набор полей (?fields=) - свое тело
+    public ResponseEntity<?> feedPage(int page, int limit, ArticleFields fields, String acceptEncoding,
+                                      Supplier<?> body) {
+        String key = "feed:" + changeTracker.generation() + ":" + page + ":" + limit + ":" + fields.key();
+        return respond(ResponseEntity.ok(), key, acceptEncoding, body);
+    }
+
+    /**
+     * Тело из кэша (или сериализованное и сжатое сейчас) с заголовками из builder.
+     * gzip - только если клиент его принимает. Выключено (app.precompressed.enabled=false) -
+     * обычный ответ, сериализует Spring.
+     * ETag в builder должен быть слабым (W/"..."): байты gzip и identity разные, а валидатор один
+     */
+    public ResponseEntity<?> respond(ResponseEntity.BodyBuilder builder, String key,
+                                     String acceptEncoding, Supplier<?> body) {
+        if (!enabled) {
+            return builder.body(body.get());
+        }
+        CompressedBody compressed = cache.get(key, k -> compress(serialize(body.get())));
+
+        builder.contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (compressed.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(compressed.gzip());
+        }
+        return builder.body(compressed.identity());
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            // Тело с фильтром полей (ArticleFields.apply) - как его пишет MappingJackson2HttpMessageConverter
+            if (body instanceof MappingJacksonValue value) {
+                return objectMapper.writer(value.getFilters()).writeValueAsBytes(value.getValue());
+            }
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+
+    // Маленькие тела не сжимаем: заголовок gzip съест выигрыш
+    private CompressedBody compress(byte[] identity) {
+        if (identity.length < minGzipSize) {
+            return new CompressedBody(identity, null);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(identity.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {
+            {
+                // Сжимаем один раз на много ответов - можно максимальный уровень
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CompressedBody(identity, buffer.toByteArray());
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.startsWith("q=")) {
+                    rejected = quality(param.substring(2)) == 0.0;
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Некорректный q считаем за 1, как будто его нет
+    private static double quality(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 1.0;
+        }
+    }
+
+    record CompressedBody(byte[] identity, byte[] gzip) {
+        int weight() {
+            return identity.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.repository.ArticleRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind счетчик прочтений.
+ * Инкременты копятся в памяти (счетчик на статью) и периодически
+ * сбрасываются в БД пачками UPDATE ... SET read_count = read_count + ?
+ * Статьи, которые не читали два сброса подряд, выбрасываются из памяти.
+ */
+@Component
+public class ReadCountAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadCountAggregator.class);
+
+    private static final String FLUSH_SQL =
+            "UPDATE articles SET read_count = coalesce(read_count, 0) + ? WHERE id = ?";
+
+    // Значение pending выброшенного счетчика
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final ArticleRepository articleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    private final Map<Long, ReadCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong flushedTotal = new AtomicLong();
+
+    public ReadCountAggregator(ArticleRepository articleRepository,
+                               JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.read-count.batch-size:500}") int batchSize) {
+        this.articleRepository = articleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+
+        Gauge.builder("blog.read_count.pending", this, ReadCountAggregator::pendingDeltas)
+                .description("Инкременты прочтений, еще не записанные в БД")
+                .register(meterRegistry);
+        Gauge.builder("blog.read_count.pending_articles", counters, Map::size)
+                .description("Статьи с незаписанными инкрементами")
+                .register(meterRegistry);
+        FunctionCounter.builder("blog.read_count.flushed", flushedTotal, AtomicLong::get)
+                .description("Всего инкрементов записано в БД")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Учитывает одно прочтение и возвращает оценку текущего значения счетчика.
+     * В БД обращаемся только при первом обращении к статье (проверка существования).
+     */
+    public long increment(Long id) {
+        while (true) {
+            ReadCounter counter = counters.get(id);
+            if (counter == null) {
+                // Запрос в БД не внутри computeIfAbsent: блокировка бакета ConcurrentHashMap
+                // на время I/O прикалывала бы виртуальный поток к carrier-потоку
+                ReadCounter loaded = loadCounter(id);
+                counter = counters.putIfAbsent(id, loaded);
+                if (counter == null) {
+                    counter = loaded;
+                }
+            }
+            // Счетчик успели выбросить (evict или простой): прочтение учитываем в новом, загруженном заново
+            if (counter.pending.getAndUpdate(v -> v == RETIRED ? v : v + 1) != RETIRED) {
+                return counter.estimate();
+            }
+        }
+    }
+
+    /**
+     * Актуальное значение счетчика для чтений: если статья отслеживается,
+     * берем нашу оценку (БД + незаписанные инкременты), иначе значение из БД
+     */
+    public Long estimate(Long id, Long persistedReadCount) {
+        ReadCounter counter = counters.get(id);
+        return counter != null ? Long.valueOf(counter.estimate()) : persistedReadCount;
+    }
+
+    /**
+     * Забыть статью (удаление или ручная правка read_count) - вызывать после записи в БД.
+     * Незаписанные инкременты отбрасываются: клиент видел read_count вместе с ними,
+     * и записанное им значение их уже содержит. Следующее прочтение перечитает счетчик из БД.
+     */
+    public void evict(Long id) {
+        // Удаление и сброс - одна операция над бакетом: flush не заберет дельту выброшенного счетчика
+        counters.computeIfPresent(id, (key, counter) -> {
+            counter.pending.set(RETIRED);
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.read-count.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        List<ReadCounter> batchCounters = new ArrayList<>(batchSize);
+
+        for (Long id : counters.keySet()) {
+            Drained drained = drain(id);
+            if (drained == null) {
+                continue;
+            }
+            batch.add(new Object[]{drained.delta(), id});
+            batchCounters.add(drained.counter());
+
+            if (batch.size() >= batchSize) {
+                flushBatch(batch, batchCounters);
+                batch = new ArrayList<>(batchSize);
+                batchCounters = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushBatch(batch, batchCounters);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("Flushing {} pending read count increments before shutdown", pendingDeltas());
+        flush();
+    }
+
+    long pendingDeltas() {
+        long total = 0;
+        for (ReadCounter counter : counters.values()) {
+            total += counter.pending();
+        }
+        return total;
+    }
+
+    /**
+     * Забирает дельту вместе с тем счетчиком, из которого она взята, - под блокировкой бакета,
+     * как и в evict: persisted обновится у того же счетчика, даже если его тут же заменят.
+     * Второй сброс подряд без прочтений выбрасывает счетчик: все его дельты уже в БД
+     * (предыдущий сброс прошел, иначе дельта вернулась бы в pending).
+     */
+    private Drained drain(Long id) {
+        Drained[] drained = new Drained[1];
+        counters.computeIfPresent(id, (key, counter) -> {
+            long delta = counter.pending.getAndUpdate(v -> v == RETIRED ? v : 0);
+            if (delta > 0) {
+                counter.idle = false;
+                drained[0] = new Drained(counter, delta);
+                return counter;
+            }
+            if (!counter.idle) {
+                counter.idle = true;
+                return counter;
+            }
+            // Не удалось - прочтение успело проскочить, счетчик остается до следующего сброса
+            return counter.pending.compareAndSet(0, RETIRED) ? null : counter;
+        });
+        return drained[0];
+    }
+
+    private void flushBatch(List<Object[]> batch, List<ReadCounter> batchCounters) {
+        try {
+            writeBatch(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                batchCounters.get(i).persisted.addAndGet((Long) batch.get(i)[0]);
+            }
+        } catch (Exception e) {
+            // Возвращаем дельты обратно, попробуем на следующем сбросе
+            logger.error("Failed to flush {} read count deltas: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                long delta = (Long) batch.get(i)[0];
+                // Выброшенный evict'ом счетчик дельту не принимает - она уже не нужна
+                batchCounters.get(i).pending.getAndUpdate(v -> v == RETIRED ? v : v + delta);
+            }
+        }
+    }
+
+    private void writeBatch(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        long flushed = batch.stream().mapToLong(args -> (Long) args[0]).sum();
+        flushedTotal.addAndGet(flushed);
+        logger.debug("Flushed {} read count increments for {} articles", flushed, batch.size());
+    }
+
+    private ReadCounter loadCounter(Long id) {
+        Long readCount = articleRepository.findReadCountById(id)
+                .orElseThrow(() -> new RuntimeException("Article not found: " + id));
+        return new ReadCounter(readCount);
+    }
+
+    private record Drained(ReadCounter counter, long delta) {
+    }
+
+    private static final class ReadCounter {
+        private final AtomicLong persisted;
+        // Незаписанные инкременты или RETIRED: счетчик выброшен из counters,
+        // новые инкременты идут в загруженный заново. Одно поле - инкремент и выброс не разъедутся
+        private final AtomicLong pending = new AtomicLong();
+        // Прошлый сброс не нашел инкрементов; трогает только flush под блокировкой бакета
+        private boolean idle;
+
+        private ReadCounter(long persisted) {
+            this.persisted = new AtomicLong(persisted);
+        }
+
+        private long pending() {
+            return Math.max(pending.get(), 0);
+        }
+
+        private long estimate() {
+            return persisted.get() + pending();
+        }
+    }
+}
@@ -1,27 +1,128 @@
 package com.keykomi.webblog.service;
 
-import com.keykomi.webblog.entity.Article;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.keykomi.webblog.dto.ArticleSummary;
 import com.keykomi.webblog.repository.ArticleRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 @Service
-@RequiredArgsConstructor
 public class SearchService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final ArticleRepository articleRepository;
+    private final ArticleService articleService;
+    private final ArticleChangeTracker changeTracker;
+    private final PageTotals pageTotals;
+
+    // Запросы без результатов: без текста запроса в тегах, только общее число
+    private final Counter zeroResults;
+
+    // Ключ включает поколение статей: любое изменение статьи делает старые записи недостижимыми
+    private final Cache<SearchKey, Slice<ArticleSummary>> cache;
+
+    public SearchService(ArticleRepository articleRepository,
+                         ArticleService articleService,
+                         ArticleChangeTracker changeTracker,
+                         PageTotals pageTotals,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.search.cache.max-size:1000}") long maxSize,
+                         @Value("${app.search.cache.ttl:60s}") Duration ttl) {
+        this.articleRepository = articleRepository;
+        this.articleService = articleService;
+        this.changeTracker = changeTracker;
+        this.pageTotals = pageTotals;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "articleSearch");
+        this.zeroResults = Counter.builder("blog.search.zero_results")
+                .description("Поисковые запросы без результатов")
+                .register(meterRegistry);
+    }
+
+    public Page<ArticleSummary> searchArticles(String q, int page, int limit) {
+        return searchArticles(q, page, limit, ArticleFields.ALL);
+    }
+
+    /**
+     * fields без tags - без запроса тегов; каждый набор полей кэшируется отдельно
+     */
+    public Page<ArticleSummary> searchArticles(String q, int page, int limit, ArticleFields fields) {
+        // С total в кэше лежит Page
+        return (Page<ArticleSummary>) cachedSearch(q, page, limit, true, fields);
+    }
 
-    public Page<Article> searchArticles(String q, int page, int limit) {
+    /**
+     * Поиск без total (?count=false): ни count(*), ни оценки планировщика
+     */
+    public Slice<ArticleSummary> searchArticleSlice(String q, int page, int limit) {
+        return searchArticleSlice(q, page, limit, ArticleFields.ALL);
+    }
+
+    public Slice<ArticleSummary> searchArticleSlice(String q, int page, int limit, ArticleFields fields) {
+        return cachedSearch(q, page, limit, false, fields);
+    }
+
+    private Slice<ArticleSummary> cachedSearch(String q, int page, int limit,
+                                               boolean withTotal, ArticleFields fields) {
         int zeroBasedPage = Math.max(0, page - 1);
-        System.out.println("Searching for: " + q + ", page: " + page + " (zero-based: " + zeroBasedPage + "), limit: " + limit);
+        String query = normalize(q);
+        if (logger.isDebugEnabled()) {
+            logger.debug("search query=\"{}\" page={} limit={}", query, page, limit);
+        }
+
+        SearchKey key = new SearchKey(query, zeroBasedPage, limit, withTotal, fields, changeTracker.generation());
+        Slice<ArticleSummary> result = cache.get(key,
+                k -> search(k.query(), k.page(), k.limit(), k.withTotal(), k.fields()));
+        if (zeroBasedPage == 0 && !result.hasContent()) {
+            zeroResults.increment();
+        }
+        return result;
+    }
 
+    private Slice<ArticleSummary> search(String query, int zeroBasedPage, int limit,
+                                         boolean withTotal, ArticleFields fields) {
         Pageable pageable = PageRequest.of(zeroBasedPage, limit);
-        Page<Article> result = articleRepository.search(q, pageable);
+        Slice<Long> ids = articleRepository.search(query, pageable);
+        List<ArticleSummary> items = articleService.getSummariesByIds(ids.getContent(), fields);
+        Slice<ArticleSummary> result = withTotal
+                ? PageableExecutionUtils.getPage(items, pageable,
+                        () -> pageTotals.searchTotal(query, () -> articleRepository.countSearch(query)))
+                : new SliceImpl<>(items, pageable, ids.hasNext());
 
-        System.out.println("Found " + result.getTotalElements() + " total articles, returning " + result.getContent().size() + " items");
+        if (logger.isDebugEnabled()) {
+            logger.debug("search query=\"{}\" returned={} has_next={}", query, items.size(), result.hasNext());
+        }
         return result;
     }
 
-}
\ No newline at end of file
+    private static String normalize(String q) {
+        return WHITESPACE.matcher(q.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private record SearchKey(String query, int page, int limit, boolean withTotal, ArticleFields fields,
+                             long generation) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.exception.BadRequestException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рейтинг trending: прочтения копятся по часам (в памяти LongAdder на статью и час),
+ * периодически дописываются в article_read_buckets и пересчитываются в top-K
+ * для каждого окна из app.trending.windows. Вклад часа затухает экспоненциально (half-life).
+ * Запрос рейтинга отдает готовый список id - O(K). После рестарта часы окна читаются из БД
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    // Прочтения удаленной статьи пропускаются: иначе внешний ключ ронял бы всю пачку,
+    // а дельты возвращались бы в счетчики и падали снова при каждом flush.
+    // CAST: без VALUES тип параметра не выводится из колонки, а Timestamp драйвер шлет без типа
+    private static final String UPSERT_SQL = """
+            INSERT INTO article_read_buckets (article_id, bucket_start, reads)
+            SELECT ?, CAST(? AS timestamptz), ? WHERE EXISTS (SELECT 1 FROM articles WHERE id = ?)
+            ON CONFLICT (article_id, bucket_start)
+            DO UPDATE SET reads = article_read_buckets.reads + EXCLUDED.reads
+            """;
+    private static final String LOAD_SQL =
+            "SELECT article_id, bucket_start, reads FROM article_read_buckets WHERE bucket_start >= ?";
+    private static final String PURGE_SQL = "DELETE FROM article_read_buckets WHERE bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final List<Duration> windows;
+    private final Duration maxWindow;
+    private final double halfLifeHours;
+    private final int topK;
+    private final int batchSize;
+
+    // Начало часа (мс UTC) -> статья -> счетчик
+    private final NavigableMap<Long, Map<Long, HourCounter>> buckets = new ConcurrentSkipListMap<>();
+
+    // Окно -> id статей по убыванию score, пересчитывается в refresh()
+    private volatile Map<Duration, List<Long>> rankings = Map.of();
+
+    @Autowired
+    public TrendingService(JdbcTemplate jdbcTemplate,
+                           @Value("${app.trending.windows:1h,24h,7d}") String windows,
+                           @Value("${app.trending.half-life:6h}") Duration halfLife,
+                           @Value("${app.trending.top-k:50}") int topK,
+                           @Value("${app.read-count.batch-size:500}") int batchSize) {
+        this(jdbcTemplate, Clock.systemUTC(), windows, halfLife, topK, batchSize);
+    }
+
+    TrendingService(JdbcTemplate jdbcTemplate, Clock clock, String windows,
+                    Duration halfLife, int topK, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.windows = Arrays.stream(windows.split(","))
+                .map(String::trim)
+                .map(DurationStyle::detectAndParse)
+                .toList();
+        this.maxWindow = Collections.max(this.windows);
+        this.halfLifeHours = (double) halfLife.toMillis() / HOUR_MS;
+        this.topK = topK;
+        this.batchSize = batchSize;
+    }
+
+    public void recordRead(Long articleId) {
+        HourCounter counter = buckets
+                .computeIfAbsent(currentHour(), hour -> new ConcurrentHashMap<>())
+                .computeIfAbsent(articleId, id -> new HourCounter());
+        counter.total.increment();
+        counter.pending.increment();
+    }
+
+    /**
+     * Первые limit статей рейтинга за окно ("24h", "7d"), окно - одно из app.trending.windows
+     */
+    public List<Long> topIds(String window, int limit) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported trending window: " + window, e);
+        }
+        List<Long> ranking = rankings.get(duration);
+        if (ranking == null) {
+            if (!windows.contains(duration)) {
+                throw new BadRequestException("Unsupported trending window: " + window);
+            }
+            return List.of();
+        }
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    /**
+     * Удаленная статья: счетчики и место в рейтинге убираются сразу, не дожидаясь refresh(),
+     * чтобы она не занимала позиции в top-K
+     */
+    public void remove(Long articleId) {
+        for (Map<Long, HourCounter> hour : buckets.values()) {
+            hour.remove(articleId);
+        }
+        Map<Duration, List<Long>> filtered = new LinkedHashMap<>();
+        rankings.forEach((window, ids) -> filtered.put(window,
+                ids.stream().filter(id -> !id.equals(articleId)).toList()));
+        rankings = filtered;
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:60000}")
+    public void refresh() {
+        flush();
+        buckets.headMap(windowStart(maxWindow)).clear();
+        recompute();
+    }
+
+    @Scheduled(cron = "${app.trending.purge-cron:0 5 * * * *}")
+    public void purgeExpired() {
+        int deleted = jdbcTemplate.update(PURGE_SQL, new Timestamp(windowStart(maxWindow)));
+        logger.debug("Purged {} expired read buckets", deleted);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long from = windowStart(maxWindow);
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            long hour = rs.getTimestamp("bucket_start").getTime();
+            HourCounter counter = buckets
+                    .computeIfAbsent(hour, h -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(rs.getLong("article_id"), id -> new HourCounter());
+            counter.total.add(rs.getLong("reads"));
+        }, new Timestamp(from));
+        recompute();
+        logger.info("Loaded trending buckets for {} hours", buckets.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Незаписанные часы одной пачкой upsert; при ошибке дельты возвращаются до следующего раза
+     */
+    void flush() {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        List<HourCounter> batchCounters = new ArrayList<>(batchSize);
+
+        for (Map.Entry<Long, Map<Long, HourCounter>> hour : buckets.entrySet()) {
+            Timestamp bucketStart = new Timestamp(hour.getKey());
+            for (Map.Entry<Long, HourCounter> entry : hour.getValue().entrySet()) {
+                long delta = entry.getValue().pending.sumThenReset();
+                if (delta == 0) {
+                    continue;
+                }
+                batch.add(new Object[]{entry.getKey(), bucketStart, delta, entry.getKey()});
+                batchCounters.add(entry.getValue());
+
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, batchCounters);
+                    batch = new ArrayList<>(batchSize);
+                    batchCounters = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, batchCounters);
+        }
+    }
+
+    void recompute() {
+        long now = clock.millis();
+        Map<Duration, List<Long>> computed = new LinkedHashMap<>();
+        for (Duration window : windows) {
+            computed.put(window, rank(now, windowStart(window)));
+        }
+        rankings = computed;
+    }
+
+    private List<Long> rank(long now, long from) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<Long, Map<Long, HourCounter>> hour : buckets.tailMap(from, true).entrySet()) {
+            double ageHours = (double) (now - hour.getKey()) / HOUR_MS;
+            double weight = Math.pow(0.5, ageHours / halfLifeHours);
+            for (Map.Entry<Long, HourCounter> entry : hour.getValue().entrySet()) {
+                scores.merge(entry.getKey(), entry.getValue().total.sum() * weight, Double::sum);
+            }
+        }
+
+        // Min-heap на K элементов вместо сортировки всех статей окна
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(topK + 1, byScore);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > topK) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> sorted = new ArrayList<>(top);
+        sorted.sort(byScore.reversed());
+        return sorted.stream().map(Map.Entry::getKey).toList();
+    }
+
+    private void writeBatch(List<Object[]> batch, List<HourCounter> batchCounters) {
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } catch (Exception e) {
+            logger.error("Failed to flush {} trending buckets: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                batchCounters.get(i).pending.add((Long) batch.get(i)[2]);
+            }
+        }
+    }
+
+    private long currentHour() {
+        long now = clock.millis();
+        return now - now % HOUR_MS;
+    }
+
+    // Окно считается целыми часами: текущий неполный час плюс предыдущие
+    private long windowStart(Duration window) {
+        return currentHour() - window.toMillis() + HOUR_MS;
+    }
+
+    private static final class HourCounter {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+    }
+}
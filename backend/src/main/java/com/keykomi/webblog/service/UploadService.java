@@ -1,58 +1,213 @@
 package com.keykomi.webblog.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.keykomi.webblog.dto.UploadStatus;
+import com.keykomi.webblog.exception.UploadRejectedException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.BlockingInputStreamAsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
+/**
+ * Загрузка изображений в S3 без буферизации: байты идут из запроса прямо в S3AsyncClient
+ * (большие файлы - multipart upload, см. S3Config). Размер и формат проверяются до начала передачи.
+ * После загрузки оригинала уменьшенные копии делает ImageVariantService в фоне;
+ * srcset статей строится только по тем, что реально созданы (ArticleService.imageVariantsReady)
+ */
 @Service
 public class UploadService {
 
-    private final S3Client s3Client;
+    private static final Logger logger = LoggerFactory.getLogger(UploadService.class);
 
-    @Value("${app.s3.bucket}")
-    private String bucketName;
+    private final S3AsyncClient s3Client;
+    private final ImageVariantService imageVariantService;
+    private final ArticleService articleService;
+    private final MeterRegistry meterRegistry;
+    private final String bucketName;
+    private final String publicUrl;
+    private final long maxSize;
 
-    public UploadService(S3Client s3Client) {
+    // Статусы потоковых загрузок для опроса клиентом
+    private final Cache<String, UploadStatus> uploads;
+
+    public UploadService(S3AsyncClient s3Client,
+                         ImageVariantService imageVariantService,
+                         ArticleService articleService,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.s3.bucket}") String bucketName,
+                         @Value("${app.s3.public-url:https://storage.yandexcloud.net/${app.s3.bucket}}") String publicUrl,
+                         @Value("${app.uploads.max-size:10MB}") DataSize maxSize,
+                         @Value("${app.uploads.status-ttl:1h}") Duration statusTtl) {
         this.s3Client = s3Client;
+        this.imageVariantService = imageVariantService;
+        this.articleService = articleService;
+        this.meterRegistry = meterRegistry;
+        this.bucketName = bucketName;
+        this.publicUrl = publicUrl;
+        this.maxSize = maxSize.toBytes();
+        this.uploads = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .build();
     }
 
+    /**
+     * Загрузка из multipart-формы: ждет окончания передачи и возвращает URL, как и раньше
+     */
     public String uploadImage(MultipartFile file) throws IOException {
-        // Проверяем тип файла
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("Файл должен быть изображением");
+        try (InputStream in = file.getInputStream()) {
+            return upload(in, file.getSize()).url().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка файла прервана", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Ошибка при загрузке файла в Yandex Cloud Storage: " + e.getCause().getMessage(), e.getCause());
         }
+    }
 
-        // Создаем уникальное имя файла
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    /**
+     * Потоковая загрузка: вызов блокирует вызывающий поток, пока все тело не прочитано
+     * и не отдано SDK (в память целиком не копируется, уходит в S3 по мере чтения).
+     * Асинхронно только то, что после: ответ S3 на последние байты и генерация вариантов.
+     * Возвращает статус pending, дальше - {@link #getStatus(String)}
+     */
+    public UploadStatus startUpload(InputStream in, long contentLength) throws IOException {
+        return uploads.getIfPresent(upload(in, contentLength).id());
+    }
+
+    public Optional<UploadStatus> getStatus(String id) {
+        return Optional.ofNullable(uploads.getIfPresent(id));
+    }
+
+    private PendingUpload upload(InputStream in, long contentLength) throws IOException {
+        if (contentLength <= 0) {
+            throw rejected(HttpStatus.LENGTH_REQUIRED, "Не указан размер файла");
+        }
+        if (contentLength > maxSize) {
+            throw rejected(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Файл больше " + DataSize.ofBytes(maxSize).toMegabytes() + " МБ");
         }
 
-        String key = "articles/" + Instant.now().getEpochSecond() + "-" + UUID.randomUUID() + extension;
+        // Формат по сигнатуре; прочитанные байты возвращаются в начало потока
+        byte[] header = in.readNBytes(ImageType.SIGNATURE_LENGTH);
+        ImageType type = ImageType.detect(header)
+                .orElseThrow(() -> rejected(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "Файл должен быть изображением (JPEG, PNG, GIF, WebP)"));
+        InputStream body = new SequenceInputStream(new ByteArrayInputStream(header), in);
+
+        String id = UUID.randomUUID().toString();
+        String key = ImageVariants.originalKey(Instant.now().getEpochSecond() + "-" + id, type);
+
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(type.contentType())
+                .contentLength(contentLength)
+                .build();
+
+        uploads.put(id, UploadStatus.pending(id));
+
+        Timer.Sample transfer = Timer.start(meterRegistry);
+        BlockingInputStreamAsyncRequestBody requestBody = AsyncRequestBody.forBlockingInputStream(contentLength);
+        CompletableFuture<PutObjectResponse> put = s3Client.putObject(request, requestBody);
+        CompletableFuture<String> url = put.handle((response, error) -> {
+            recordTransfer(transfer, type, contentLength, error == null);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                logger.warn("Upload {} failed: {}", key, cause.getMessage());
+                uploads.put(id, UploadStatus.failed(id, "Ошибка при загрузке файла в хранилище"));
+                throw new CompletionException(cause);
+            }
+            String location = publicUrl + "/" + key;
+            uploads.put(id, UploadStatus.completed(id, location));
+            logger.debug("Uploaded {} ({} bytes)", key, contentLength);
+            generateVariants(id, key, type, location);
+            return location;
+        });
 
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType(contentType)
-                    .build();
+            // Блокируется, пока SDK не заберет все байты; в памяти только текущий чанк
+            requestBody.writeInputStream(body);
+        } catch (RuntimeException e) {
+            put.cancel(true);
+            uploads.put(id, UploadStatus.failed(id, "Передача файла прервана"));
+            throw new IOException("Передача файла прервана: " + e.getMessage(), e);
+        }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+        return new PendingUpload(id, url);
+    }
 
-            // Возвращаем URL для Yandex Cloud Storage
-            return "https://storage.yandexcloud.net/" + bucketName + "/" + key;
+    // Теги у обоих метров одинаковые: время и размер сопоставляются по формату
+    private void recordTransfer(Timer.Sample transfer, ImageType type, long contentLength, boolean success) {
+        String format = type.name().toLowerCase(Locale.ROOT);
+        String outcome = success ? "success" : "failure";
+        transfer.stop(Timer.builder("blog.upload.duration")
+                .description("Передача изображения в S3, от первого байта до ответа")
+                .tag("format", format)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        DistributionSummary.builder("blog.upload.size")
+                .description("Размер загруженных изображений")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(contentLength);
+    }
 
-        } catch (Exception e) {
-            throw new IOException("Ошибка при загрузке файла в Yandex Cloud Storage: " + e.getMessage(), e);
+    private UploadRejectedException rejected(HttpStatus status, String message) {
+        meterRegistry.counter("blog.upload.rejected", "status", String.valueOf(status.value())).increment();
+        return new UploadRejectedException(status, message);
+    }
+
+    /**
+     * Варианты не влияют на результат загрузки: без них фронт просто покажет оригинал.
+     * Ошибка генерации или переполненная очередь - srcset не записывается и не отдается
+     */
+    private void generateVariants(String id, String key, ImageType type, String location) {
+        if (!imageVariantService.supports(type)) {
+            logger.debug("Variants for {} skipped: no decoder for {}", key, type);
+            return;
         }
+        imageVariantService.generate(key).whenComplete((variants, error) -> {
+            if (error != null) {
+                logger.warn("Variants for {} not generated: {}", key, error.getMessage());
+                return;
+            }
+            try {
+                articleService.imageVariantsReady(location, variants);
+            } catch (RuntimeException e) {
+                logger.warn("Variants for {} not recorded: {}", key, e.getMessage());
+                return;
+            }
+            uploads.asMap().computeIfPresent(id, (uploadId, status) -> status.withVariants(variants));
+        });
+    }
+
+    private record PendingUpload(String id, CompletableFuture<String> url) {
     }
-}
\ No newline at end of file
+}
@@ -3,27 +3,34 @@ package com.keykomi.webblog.service;
 import com.keykomi.webblog.entity.User;
 import com.keykomi.webblog.repository.UserRepository;
 import com.keykomi.webblog.security.UserDetailsImpl;
+import com.keykomi.webblog.security.UserPrincipalCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
+    // Без @Transactional: при попадании в кэш не нужно ни транзакции, ни соединения
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Отсутствующие пользователи не кэшируются: исключение пробрасывается из загрузчика
+        return userPrincipalCache.get(username, this::loadFromDatabase);
+    }
+
+    private UserDetailsImpl loadFromDatabase(String username) {
         User user = userRepository.findByUsernameOrMail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+}
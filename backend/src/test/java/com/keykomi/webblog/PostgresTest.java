@@ -0,0 +1,51 @@
+package com.keykomi.webblog;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Встроенный Postgres на класс тестов для SQL, которого нет в H2 (nextval, ON CONFLICT, триггеры).
+ * Схема - create_tables.sql, как у loadTest; таблицы очищаются после каждого теста
+ */
+public abstract class PostgresTest {
+
+    private static final Path SCHEMA = Path.of(System.getProperty("webblog.schema", "../create_tables.sql"));
+
+    private static EmbeddedPostgres postgres;
+
+    protected static DataSource dataSource;
+    protected static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        // Как в application.yaml: пачки INSERT драйвер переписывает в многострочные
+        dataSource = postgres.getDatabase("postgres", "postgres", Map.of("reWriteBatchedInserts", "true"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(Files.readString(SCHEMA));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @AfterEach
+    void truncateTables() {
+        jdbcTemplate.execute("TRUNCATE articles, image_variants RESTART IDENTITY CASCADE");
+    }
+
+    // Миграция поверх create_tables.sql: так проверяется, что она накатывается на готовую схему
+    protected static void applyMigration(String name) throws IOException {
+        jdbcTemplate.execute(Files.readString(SCHEMA.resolveSibling("migrations").resolve(name)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.keykomi.webblog.repository;
+
+import com.keykomi.webblog.service.ArticleJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Теги обновляются разностью множеств: SELECT текущих и по одному оператору на добавление / удаление
+ */
+class ArticleTagDiffTest extends ArticleJpaTest {
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        id = persistArticle("Tags", "Content", LocalDateTime.now(), List.of("java", "spring")).getId();
+        flushAndClear();
+        resetStatements();
+    }
+
+    @Test
+    void unchangedTagsOnlyReadCurrentOnes() {
+        articleRepository.updateTags(id, List.of("spring", "java"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(Set.of("java", "spring"), storedTags());
+    }
+
+    @Test
+    void addedTagIsOneInsert() {
+        articleRepository.updateTags(id, List.of("java", "spring", "hibernate"));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(Set.of("java", "spring", "hibernate"), storedTags());
+    }
+
+    @Test
+    void removedTagIsOneDelete() {
+        articleRepository.updateTags(id, List.of("java"));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(Set.of("java"), storedTags());
+    }
+
+    @Test
+    void severalAddedAndRemovedTagsAreStillOneStatementEach() {
+        articleRepository.updateTags(id, List.of("kotlin", "gradle", "kotlin"));
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(Set.of("kotlin", "gradle"), storedTags());
+    }
+
+    @Test
+    void alreadyLoadedTagsAreNotSelectedAgain() {
+        articleRepository.updateTags(id, List.of("java", "spring"), List.of("spring", "java"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        articleRepository.updateTags(id, List.of("java", "spring"), List.of("java", "kotlin"));
+        // DELETE spring + INSERT kotlin, без SELECT текущих
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(Set.of("java", "kotlin"), storedTags());
+    }
+
+    private Set<String> storedTags() {
+        flushAndClear();
+        return Set.copyOf(articleRepository.findWithTagsById(id).orElseThrow().getTags());
+    }
+}
@@ -0,0 +1,70 @@
+package com.keykomi.webblog.security;
+
+import com.keykomi.webblog.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Кэш проверенных токенов не должен пропускать то, что не пропустил бы парсер
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-at-least-32-bytes-long";
+    private static final String OTHER_SECRET = "another-secret-key-at-least-32-bytes";
+    private static final long EXPIRATION_MS = Duration.ofMinutes(1).toMillis();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T12:00:00Z"));
+    private final JwtTokenProvider provider = provider(SECRET);
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() {
+        String token = provider.generateToken("reader");
+        assertNotNull(provider.parseAndVerify(token));
+        assertNotNull(provider.parseAndVerify(token));
+
+        clock.advance(Duration.ofMinutes(2));
+
+        // Запись еще в кэше (его время не двигалось), отказ - по exp из claims
+        assertNull(provider.parseAndVerify(token));
+        // И повторно не кэшируется: парсер видит те же часы
+        assertNull(provider.parseAndVerify(token));
+    }
+
+    @Test
+    void tamperedPayloadMissesCache() {
+        String token = provider.generateToken("reader");
+        assertNotNull(provider.parseAndVerify(token));
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"reader\"", "\"admin\"");
+        String forged = parts[0] + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + parts[2];
+
+        assertNull(provider.parseAndVerify(forged));
+        assertEquals("reader", provider.getUsernameFromToken(token));
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        assertNotNull(provider.parseAndVerify(provider.generateToken("reader")));
+
+        // Те же claims и время, другая подпись
+        String foreign = provider(OTHER_SECRET).generateToken("reader");
+
+        assertNull(provider.parseAndVerify(foreign));
+    }
+
+    private JwtTokenProvider provider(String secret) {
+        return new JwtTokenProvider(secret, EXPIRATION_MS, 100, Duration.ofMinutes(10), clock);
+    }
+}
@@ -0,0 +1,96 @@
+package com.keykomi.webblog.security;
+
+import com.keykomi.webblog.entity.User;
+import com.keykomi.webblog.repository.UserRepository;
+import com.keykomi.webblog.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({UserDetailsServiceImpl.class, UserPrincipalCache.class, SimpleMeterRegistry.class})
+class UserPrincipalCacheTest {
+
+    private static final int REQUESTS = 10;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userPrincipalCache.evictAll();
+
+        user = new User();
+        user.setUsername("keykomi");
+        user.setMail("keykomi@example.com");
+        user.setHashedPassword("hash");
+        user.setCreatedAt(ZonedDateTime.now());
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void authenticatedRequestsHitDatabaseOnce() {
+        for (int i = 0; i < REQUESTS; i++) {
+            userDetailsService.loadUserByUsername("keykomi");
+        }
+
+        // Без кэша было бы REQUESTS запросов findByUsernameOrMail - экономим REQUESTS - 1
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updatingUserEvictsCachedPrincipal() {
+        userDetailsService.loadUserByUsername("keykomi");
+        userDetailsService.loadUserByUsername("keykomi@example.com");
+
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.setHashedPassword("new-hash");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals("new-hash", userDetailsService.loadUserByUsername("keykomi").getPassword());
+        assertEquals("new-hash", userDetailsService.loadUserByUsername("keykomi@example.com").getPassword());
+    }
+
+    @Test
+    void deletingUserEvictsCachedPrincipal() {
+        userDetailsService.loadUserByUsername("keykomi");
+
+        userRepository.deleteById(user.getId());
+        entityManager.flush();
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("keykomi"));
+    }
+}
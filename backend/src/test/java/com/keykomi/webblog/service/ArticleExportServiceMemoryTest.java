@@ -0,0 +1,119 @@
+package com.keykomi.webblog.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Выгружает таблицу, которая заведомо больше кучи (запускается задачей memoryTest с -Xmx128m).
+ * База файловая, чтобы сами данные не лежали в heap.
+ */
+@Tag("memory")
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:file:./build/h2/export-memory-test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ArticleExportService.class, ReadCountAggregator.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArticleExportServiceMemoryTest {
+
+    private static final int ARTICLES = 4_000;
+    private static final int CONTENT_SIZE = 64 * 1024;
+
+    @Autowired
+    private ArticleExportService articleExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM article_tags");
+        jdbcTemplate.update("DELETE FROM articles");
+
+        // ~256 MB текста при куче в 128 MB
+        String content = "Lorem ipsum dolor sit amet ".repeat(CONTENT_SIZE / 27);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ARTICLES; i++) {
+            batch.add(new Object[]{"Article " + i, content, LocalDateTime.now().minusMinutes(i)});
+            if (batch.size() == 100) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+        jdbcTemplate.update("INSERT INTO article_tags (article_id, tag) SELECT id, 'export' FROM articles");
+    }
+
+    @Test
+    void ndjsonExportStreamsTableLargerThanHeap() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+
+        articleExportService.writeArticlesNdjson(out);
+
+        assertEquals(ARTICLES, out.lines);
+        assertTrue(out.bytes > (long) ARTICLES * CONTENT_SIZE / 2);
+    }
+
+    @Test
+    void summaryExportWritesEveryArticle() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+
+        articleExportService.writeSummaries(out);
+
+        assertTrue(out.bytes > 0);
+        assertTrue(out.bytes < (long) ARTICLES * 1024);
+    }
+
+    private void insert(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO articles (title, content, read_count, published_at) VALUES (?, ?, 0, ?)", batch);
+        }
+    }
+
+    // Ничего не хранит, только считает байты и переводы строк
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keykomi.webblog.config.JacksonConfig;
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.PaginatedResponse;
+import com.keykomi.webblog.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArticleFieldsTest {
+
+    private final ObjectMapper objectMapper = objectMapper();
+
+    @Test
+    void writesOnlyRequestedPropertiesAndAlwaysId() throws JsonProcessingException {
+        ArticleFields fields = ArticleFields.parse(" title , READ_COUNT");
+        PaginatedResponse<ArticleDTO> page = new PaginatedResponse<>(List.of(article()), 1, 1, 10);
+
+        JsonNode json = objectMapper.readTree(write(fields.apply(page)));
+
+        // Обертка страницы не фильтруется, только свойства статей
+        assertEquals(1, json.path("total").asLong());
+        JsonNode item = json.path("items").get(0);
+        assertEquals(Set.of("id", "title", "read_count"), Set.copyOf(fieldNames(item)));
+        assertEquals(5, item.path("read_count").asLong());
+    }
+
+    @Test
+    void withoutFieldsEverythingIsWritten() throws JsonProcessingException {
+        ArticleDTO article = article();
+
+        assertSame(article, ArticleFields.ALL.apply(article));
+        assertTrue(objectMapper.writeValueAsString(article).contains("\"content\":\"Body\""));
+    }
+
+    @Test
+    void unknownFieldIsRejected() {
+        assertThrows(BadRequestException.class, () -> ArticleFields.parse("id,password"));
+    }
+
+    @Test
+    void keyDoesNotDependOnOrder() {
+        assertEquals(ArticleFields.parse("title,tags").key(), ArticleFields.parse("tags, title").key());
+        assertEquals(ArticleFields.parse("title,tags"), ArticleFields.parse("tags,title,id"));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private String write(Object body) throws JsonProcessingException {
+        MappingJacksonValue value = (MappingJacksonValue) body;
+        return objectMapper.writer(value.getFilters()).writeValueAsString(value.getValue());
+    }
+
+    private static ArticleDTO article() {
+        ArticleDTO article = new ArticleDTO();
+        article.setId(1L);
+        article.setTitle("Title");
+        article.setContent("Body");
+        article.setReadCount(5L);
+        article.setTags(List.of("java"));
+        return article;
+    }
+
+    private static ObjectMapper objectMapper() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().articleFieldsFilter().customize(builder);
+        return builder.serializationInclusion(JsonInclude.Include.NON_NULL).build();
+    }
+}
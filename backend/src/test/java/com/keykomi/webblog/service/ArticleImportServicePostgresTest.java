@@ -0,0 +1,112 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keykomi.webblog.PostgresTest;
+import com.keykomi.webblog.dto.BulkImportResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Импорт против настоящего Postgres: резерв id через nextval, пачки INSERT
+ * и пересчет search_vector триггером на оператор (migrations/005)
+ */
+class ArticleImportServicePostgresTest extends PostgresTest {
+
+    private final ArticleChangeTracker changeTracker = new ArticleChangeTracker();
+
+    private ArticleImportService importService;
+
+    @BeforeAll
+    static void applyTagTrigger() throws IOException {
+        applyMigration("005_article_tags_statement_trigger.sql");
+    }
+
+    @BeforeEach
+    void setUp() {
+        importService = new ArticleImportService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                changeTracker, new ObjectMapper(), 2, 100);
+    }
+
+    @Test
+    void reservedIdsStayInSyncWithSequence() throws IOException {
+        BulkImportResult result = importService.importArticles(stream("""
+                {"title": "First", "content": "one"}
+                {"title": "Second", "content": "two"}
+                {"title": "Third", "content": "three"}
+                """));
+
+        assertEquals(3, result.imported());
+        assertEquals(List.of(1L, 2L, 3L), jdbcTemplate.queryForList("SELECT id FROM articles ORDER BY id", Long.class));
+        // Обычная вставка после импорта получает следующий id, а не занятый
+        Long next = jdbcTemplate.queryForObject(
+                "INSERT INTO articles (title, content) VALUES ('Manual', 'manual') RETURNING id", Long.class);
+        assertEquals(4L, next);
+    }
+
+    @Test
+    void tagsOfBatchAreSearchable() throws IOException {
+        BulkImportResult result = importService.importArticles(stream("""
+                {"title": "Alpha", "content": "one", "tags": ["kotlin", "spring"]}
+                {"title": "Beta", "content": "two", "tags": ["kotlin"]}
+                {"title": "Gamma", "content": "three", "tags": ["postgres"]}
+                """));
+
+        assertEquals(3, result.imported());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT count(*) FROM article_tags", Integer.class));
+        // Тегов нет в title / content: найти по ним можно только после пересчета триггером article_tags
+        assertEquals(List.of("Alpha", "Beta"), search("kotlin"));
+        assertEquals(List.of("Gamma"), search("postgres"));
+    }
+
+    @Test
+    void failedTagInsertRollsBackWholeBatch() throws IOException {
+        // NUL Postgres в тексте не принимает: валидацию проходит, падает INSERT тегов второй статьи
+        BulkImportResult result = importService.importArticles(stream("""
+                {"title": "A", "content": "a", "tags": ["ok"]}
+                {"title": "B", "content": "b", "tags": ["bad\\u0000tag"]}
+                {"title": "C", "content": "c"}
+                """));
+
+        assertEquals(1, result.imported());
+        assertEquals(List.of(0, 1), result.errors().stream().map(BulkImportResult.ItemError::index).toList());
+        assertEquals(List.of("C"), jdbcTemplate.queryForList("SELECT title FROM articles", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM article_tags", Integer.class));
+        assertEquals(1, changeTracker.generation());
+    }
+
+    @Test
+    void importedImageGetsRecordedVariants() throws IOException {
+        String uploaded = "http://cdn.example.com/blog/articles/1-upload/original.png";
+        jdbcTemplate.update("INSERT INTO image_variants (image_url, widths) VALUES (?, ?)", uploaded, "320w,768w,1280w");
+
+        importService.importArticles(stream("""
+                {"title": "Uploaded", "content": "a", "image_url": "%s"}
+                {"title": "External", "content": "b", "image_url": "https://example.com/picture.png"}
+                """.formatted(uploaded)));
+
+        assertEquals(Arrays.asList("320w,768w,1280w", null),
+                jdbcTemplate.queryForList("SELECT image_widths FROM articles ORDER BY id", String.class));
+    }
+
+    private static List<String> search(String query) {
+        return jdbcTemplate.queryForList("""
+                SELECT title FROM articles
+                WHERE search_vector @@ websearch_to_tsquery('russian', ?)
+                ORDER BY id
+                """, String.class, query);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
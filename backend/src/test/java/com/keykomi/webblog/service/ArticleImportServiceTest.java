@@ -0,0 +1,143 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keykomi.webblog.dto.BulkImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ArticleImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ArticleChangeTracker changeTracker = new ArticleChangeTracker();
+
+    private final List<List<Object[]>> articleBatches = new ArrayList<>();
+    private final List<List<Object[]>> tagBatches = new ArrayList<>();
+
+    private ArticleImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        long[] nextId = {1};
+        when(jdbcTemplate.queryForList(startsWith("SELECT nextval"), eq(Long.class), anyInt()))
+                .thenAnswer(invocation -> {
+                    int count = invocation.getArgument(2);
+                    long first = nextId[0];
+                    nextId[0] += count;
+                    return LongStream.range(first, first + count).boxed().toList();
+                });
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO articles"), anyList(), any(int[].class)))
+                .thenAnswer(invocation -> {
+                    articleBatches.add(new ArrayList<>(invocation.<List<Object[]>>getArgument(1)));
+                    return new int[0];
+                });
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO article_tags"), anyList(), any(int[].class)))
+                .thenAnswer(invocation -> {
+                    tagBatches.add(new ArrayList<>(invocation.<List<Object[]>>getArgument(1)));
+                    return new int[0];
+                });
+
+        importService = new ArticleImportService(jdbcTemplate, transactionManager, changeTracker,
+                new ObjectMapper(), 2, 100);
+    }
+
+    @Test
+    void importsNdjsonInBatchesAndReportsInvalidItems() throws IOException {
+        String ndjson = """
+                {"title": "First", "content": "one", "tags": ["java", "java", "spring"]}
+                {"title": "", "content": "no title"}
+                {"title": "Second", "content": "two"}
+                {"title": "Third", "content": "three"}
+                """;
+
+        BulkImportResult result = importService.importArticles(stream(ndjson));
+
+        assertEquals(4, result.received());
+        assertEquals(3, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(List.of(new BulkImportResult.ItemError(1, "title is required")), result.errors());
+
+        // Пачки по 2: [First, Second], [Third]
+        assertEquals(2, articleBatches.size());
+        assertEquals(List.of(1L, 2L), articleBatches.get(0).stream().map(row -> row[0]).toList());
+        assertEquals("Third", articleBatches.get(1).get(0)[1]);
+        // Повтор "java" отброшен, у остальных статей тегов нет - одна пачка тегов
+        assertEquals(1, tagBatches.size());
+        assertEquals(List.of("java", "spring"), tagBatches.get(0).stream().map(row -> row[1]).toList());
+        assertEquals(2, changeTracker.generation());
+    }
+
+    @Test
+    void failedBatchIsReportedForEveryItemAndLaterBatchesContinue() throws IOException {
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .doReturn(new int[0])
+                .when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO articles"), anyList(), any(int[].class));
+
+        BulkImportResult result = importService.importArticles(stream("""
+                [{"title": "A", "content": "a"}, {"title": "B", "content": "b"}, {"title": "C", "content": "c"}]
+                """));
+
+        assertEquals(3, result.received());
+        assertEquals(1, result.imported());
+        assertEquals(List.of(0, 1), result.errors().stream().map(BulkImportResult.ItemError::index).toList());
+        assertTrue(result.errors().get(0).message().startsWith("Batch rejected"));
+    }
+
+    @Test
+    void malformedJsonStopsReadingButKeepsWhatWasRead() throws IOException {
+        BulkImportResult result = importService.importArticles(stream("""
+                {"title": "A", "content": "a"}
+                {"title": "B", "content":
+                """));
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.errors().size());
+        assertEquals(1, result.errors().get(0).index());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), anyInt());
+    }
+
+    @Test
+    void garbageOrEmptyBodyIsReportedInsteadOfThrown() throws IOException {
+        for (String body : List.of("not json", "[{\"title\"", "}")) {
+            BulkImportResult result = importService.importArticles(stream(body));
+
+            assertEquals(0, result.received());
+            assertEquals(1, result.errors().size());
+            assertEquals(0, result.errors().get(0).index());
+            assertTrue(result.errors().get(0).message().startsWith("Malformed JSON"));
+        }
+
+        BulkImportResult empty = importService.importArticles(stream(""));
+        assertEquals(0, empty.received());
+        assertTrue(empty.errors().isEmpty());
+        verify(jdbcTemplate, times(0)).queryForList(anyString(), eq(Long.class), anyInt());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,62 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.entity.Article;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Основа JPA-тестов статей: H2, ArticleService со всеми зависимостями, счетчики Hibernate Statistics
+ * и текст SQL (RecordingStatementInspector). Конфигурация одна на всех наследников - и контекст Spring тоже.
+ * Новую зависимость ArticleService достаточно добавить в @Import здесь
+ */
+@DataJpaTest(properties = RecordingStatementInspector.PROPERTY)
+@ActiveProfiles("test")
+@Import({ArticleService.class, ReadCountAggregator.class, ArticleChangeTracker.class, TrendingService.class,
+        PageTotals.class, SimpleMeterRegistry.class})
+public abstract class ArticleJpaTest {
+
+    @Autowired
+    protected ArticleService articleService;
+
+    @Autowired
+    protected EntityManager entityManager;
+
+    protected Statistics statistics;
+
+    @BeforeEach
+    protected void enableStatistics() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    protected Article persistArticle(String title, String content, LocalDateTime publishedAt, List<String> tags) {
+        Article article = new Article();
+        article.setTitle(title);
+        article.setContent(content);
+        article.setPublishedAt(publishedAt);
+        article.setTags(tags);
+        entityManager.persist(article);
+        return article;
+    }
+
+    protected void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Вызывается после подготовки данных: дальше считаются только запросы самого теста
+    protected void resetStatements() {
+        statistics.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+}
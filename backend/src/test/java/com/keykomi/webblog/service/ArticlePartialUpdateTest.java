@@ -0,0 +1,102 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.entity.Article;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PATCH пишет только переданные колонки: SQL перехватывается RecordingStatementInspector
+ */
+class ArticlePartialUpdateTest extends ArticleJpaTest {
+
+    private Long id;
+    private Long version;
+
+    @BeforeEach
+    void setUp() {
+        Article article = persistArticle("Original", "Original content", LocalDateTime.now(), List.of("java", "spring"));
+        flushAndClear();
+        id = article.getId();
+        version = article.getVersion();
+        resetStatements();
+    }
+
+    @Test
+    void titleOnlyPatchNeverReadsOrWritesContent() {
+        ArticleDTO dto = new ArticleDTO();
+        dto.setTitle("Patched");
+
+        ArticleDTO result = articleService.partialUpdateArticle(id, dto);
+
+        List<String> statements = List.copyOf(RecordingStatementInspector.STATEMENTS);
+        assertFalse(statements.isEmpty());
+        for (String sql : statements) {
+            assertFalse(sql.toLowerCase(Locale.ROOT).contains("content"), sql);
+        }
+        assertTrue(statements.stream().anyMatch(sql -> sql.toLowerCase(Locale.ROOT).startsWith("update articles")));
+
+        assertEquals("Patched", result.getTitle());
+        assertNull(result.getContent());
+        assertEquals(version + 1, result.getVersion());
+
+        flushAndClear();
+        Article stored = entityManager.find(Article.class, id);
+        assertEquals("Patched", stored.getTitle());
+        assertEquals("Original content", stored.getContent());
+        assertEquals(version + 1, stored.getVersion());
+    }
+
+    @Test
+    void patchWithCurrentVersionReturnsNextVersion() {
+        ArticleDTO first = new ArticleDTO();
+        first.setTitle("First");
+        first.setVersion(version);
+        long afterFirst = articleService.partialUpdateArticle(id, first).getVersion();
+
+        ArticleDTO second = new ArticleDTO();
+        second.setAuthor("Someone");
+        second.setVersion(afterFirst);
+
+        assertEquals(afterFirst + 1, articleService.partialUpdateArticle(id, second).getVersion());
+    }
+
+    @Test
+    void patchWithStaleVersionIsRejected() {
+        ArticleDTO first = new ArticleDTO();
+        first.setTitle("First editor");
+        first.setVersion(version);
+        articleService.partialUpdateArticle(id, first);
+
+        ArticleDTO second = new ArticleDTO();
+        second.setTitle("Second editor");
+        second.setVersion(version);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> articleService.partialUpdateArticle(id, second));
+        flushAndClear();
+        assertEquals("First editor", entityManager.find(Article.class, id).getTitle());
+    }
+
+    @Test
+    void patchOfMissingArticleIsNotFound() {
+        ArticleDTO dto = new ArticleDTO();
+        dto.setTitle("Nobody");
+        dto.setVersion(0L);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> articleService.partialUpdateArticle(id + 1000, dto));
+        assertTrue(e.getMessage().startsWith("Article not found"));
+    }
+}
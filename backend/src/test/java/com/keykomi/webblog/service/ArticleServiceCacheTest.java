@@ -0,0 +1,174 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.dto.ArticleDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кэши сбрасываются после коммита, поэтому тесты идут без общей тестовой транзакции:
+ * каждый вызов сервиса коммитится сам, данные удаляются после теста
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArticleServiceCacheTest extends ArticleJpaTest {
+
+    @Autowired
+    private ArticleChangeTracker changeTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+    private Long id;
+
+    @BeforeEach
+    void setUp(@Autowired PlatformTransactionManager transactionManager) {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        id = transactionTemplate.execute(status -> persistArticle("Original", "Original content",
+                LocalDateTime.now(), List.of("java", "spring")).getId());
+        resetStatements();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM article_tags");
+        jdbcTemplate.update("DELETE FROM articles");
+        jdbcTemplate.update("DELETE FROM image_variants");
+    }
+
+    @Test
+    void repeatedReadIsServedFromCache() {
+        ArticleDTO first = articleService.getArticleById(id);
+        long statements = statistics.getPrepareStatementCount();
+
+        ArticleDTO second = articleService.getArticleById(id);
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(first.getTitle(), second.getTitle());
+        assertNotNull(second.getUpdatedAt());
+    }
+
+    @Test
+    void updateInvalidatesCachedArticle() {
+        articleService.getArticleById(id);
+
+        articleService.updateArticle(id, article("Updated", List.of("java")));
+
+        ArticleDTO article = articleService.getArticleById(id);
+        assertEquals("Updated", article.getTitle());
+        assertEquals(List.of("java"), article.getTags());
+    }
+
+    @Test
+    void readDuringUncommittedUpdateDoesNotStayCached() {
+        long generation = changeTracker.generation();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            articleService.updateArticle(id, article("Committed", List.of("kotlin")));
+
+            // Параллельный GET до коммита видит старую строку и кладет ее в кэш
+            ArticleDTO concurrent = CompletableFuture.supplyAsync(() -> articleService.getArticleById(id)).join();
+            assertEquals("Original", concurrent.getTitle());
+            assertEquals(generation, changeTracker.generation());
+        });
+
+        ArticleDTO article = articleService.getArticleById(id);
+        assertEquals("Committed", article.getTitle());
+        assertEquals(List.of("kotlin"), article.getTags());
+        assertTrue(changeTracker.generation() > generation);
+    }
+
+    @Test
+    void rolledBackUpdateKeepsCache() {
+        articleService.getArticleById(id);
+        long generation = changeTracker.generation();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            articleService.updateArticle(id, article("Rolled back", List.of()));
+            status.setRollbackOnly();
+        });
+
+        assertEquals("Original", articleService.getArticleById(id).getTitle());
+        assertEquals(generation, changeTracker.generation());
+    }
+
+    @Test
+    void patchInvalidatesCachedArticle() {
+        articleService.getArticleById(id);
+
+        ArticleDTO dto = new ArticleDTO();
+        dto.setTitle("Patched");
+        articleService.partialUpdateArticle(id, dto);
+
+        ArticleDTO article = articleService.getArticleById(id);
+        assertEquals("Patched", article.getTitle());
+        assertEquals("Original content", article.getContent());
+    }
+
+    @Test
+    void tagOnlyPatchMovesUpdatedAt() {
+        LocalDateTime before = articleService.getArticleById(id).getUpdatedAt();
+
+        ArticleDTO dto = new ArticleDTO();
+        dto.setTags(List.of("kotlin"));
+        articleService.partialUpdateArticle(id, dto);
+
+        ArticleDTO article = articleService.getArticleById(id);
+        assertEquals(List.of("kotlin"), article.getTags());
+        assertTrue(article.getUpdatedAt().isAfter(before));
+    }
+
+    @Test
+    void deleteInvalidatesCachedArticle() {
+        articleService.getArticleById(id);
+
+        articleService.deleteArticle(id);
+
+        assertThrows(RuntimeException.class, () -> articleService.getArticleById(id));
+    }
+
+    @Test
+    void srcsetAppearsOnlyForRecordedVariants() {
+        String imageUrl = "http://cdn.example.com/blog/articles/1-upload/original.png";
+        ArticleDTO dto = article("With image", List.of());
+        dto.setImageUrl(imageUrl);
+        Long withImage = articleService.createArticle(dto).getId();
+        assertNull(articleService.getArticleById(withImage).getImageSrcset());
+        long generation = changeTracker.generation();
+
+        // Создан только 320w (например, 768w не успел записаться) - его и отдаем
+        Map<String, String> srcset = Map.of("320w", "http://cdn.example.com/blog/articles/1-upload/w320.jpg");
+        articleService.imageVariantsReady(imageUrl, srcset);
+
+        assertEquals(srcset, articleService.getArticleById(withImage).getImageSrcset());
+        assertTrue(changeTracker.generation() > generation);
+        // Статья, сохраненная после генерации, получает srcset сразу
+        assertEquals(srcset, articleService.createArticle(dto).getImageSrcset());
+        assertNull(articleService.getArticleById(id).getImageSrcset());
+    }
+
+    private static ArticleDTO article(String title, List<String> tags) {
+        ArticleDTO dto = new ArticleDTO();
+        dto.setTitle(title);
+        dto.setContent(title + " content");
+        dto.setTags(tags);
+        return dto;
+    }
+}
@@ -0,0 +1,168 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.dto.ArticleBatchResponse;
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.ArticleSummary;
+import com.keykomi.webblog.dto.CursorPage;
+import com.keykomi.webblog.entity.Article;
+import com.keykomi.webblog.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArticleServiceQueryCountTest extends ArticleJpaTest {
+
+    private static final int ARTICLES = 30;
+
+    @Autowired
+    private ArticleChangeTracker changeTracker;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ARTICLES; i++) {
+            Article article = persistArticle("Article " + i, "Content " + i, LocalDateTime.now().minusHours(i),
+                    List.of("common", "tag-" + i, "group-" + (i % 3)));
+            ids.add(article.getId());
+        }
+        flushAndClear();
+        // Статьи записаны мимо ArticleService - кэшированные total от прошлых тестов недействительны
+        changeTracker.markChanged();
+        resetStatements();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, ARTICLES})
+    void feedPageUsesConstantNumberOfStatements(int limit) {
+        Page<ArticleSummary> page = articleService.getArticlesByPage(1, limit);
+
+        assertEquals(limit, page.getNumberOfElements());
+        assertFalse(page.getContent().get(0).getTags().isEmpty());
+        // summaries + count + один запрос тегов на всю страницу
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, ARTICLES})
+    void tagPageUsesConstantNumberOfStatements(int limit) {
+        Page<ArticleSummary> page = articleService.getArticlesByTag("common", 1, limit);
+
+        assertEquals(limit, page.getNumberOfElements());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, ARTICLES - 1})
+    void cursorPageUsesConstantNumberOfStatements(int limit) {
+        articleService.getArticlesAfter("", limit);
+
+        // keyset-запрос без count + теги
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorFeedSkipsArticlesWithoutPublishedAt() {
+        Article undated = persistArticle("Undated", "Undated content", null, List.of());
+        entityManager.flush();
+        // @PrePersist ставит дату, null бывает только у строк, записанных мимо JPA
+        entityManager.createNativeQuery("UPDATE articles SET published_at = NULL WHERE id = :id")
+                .setParameter("id", undated.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ArticleSummary> page = articleService.getArticlesAfter(after, 7);
+            page.getItems().forEach(summary -> seen.add(summary.getId()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertEquals(ids, seen);
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        assertThrows(BadRequestException.class, () -> articleService.getArticlesAfter("bm90LWEtY3Vyc29y", 10));
+        assertThrows(BadRequestException.class, () -> articleService.getArticlesAfter("%%%", 10));
+    }
+
+    @Test
+    void cachedTotalSkipsCountUntilArticlesChange() {
+        articleService.getArticlesByPage(1, 10);
+        statistics.clear();
+
+        Page<ArticleSummary> page = articleService.getArticlesByPage(2, 10);
+        assertEquals(ARTICLES, page.getTotalElements());
+        // summaries + теги, count взят из кэша
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        changeTracker.markChanged();
+        statistics.clear();
+        articleService.getArticlesByPage(2, 10);
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void slicePageNeverCounts() {
+        Slice<ArticleSummary> slice = articleService.getArticleSliceByPage(1, 10);
+
+        assertEquals(10, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void offsetPagesAreNewestFirstWithoutGapsOrRepeats() {
+        List<Long> seen = new ArrayList<>();
+        for (int page = 1; page <= 3; page++) {
+            articleService.getArticleSliceByPage(page, 10).forEach(summary -> seen.add(summary.getId()));
+        }
+
+        assertEquals(ids, seen);
+        assertEquals(ids.subList(10, 20), articleService.getArticlesByTag("common", 2, 10)
+                .map(ArticleSummary::getId).getContent());
+    }
+
+    @Test
+    void batchGetLoadsArticlesAndTagsWithTwoStatementsInRequestedOrder() {
+        List<Long> requested = List.of(ids.get(5), ids.get(0), -1L, ids.get(5), ids.get(12));
+
+        ArticleBatchResponse response = articleService.getArticlesByIds(requested);
+
+        assertEquals(List.of(ids.get(5), ids.get(0), ids.get(12)),
+                response.items().stream().map(ArticleDTO::getId).toList());
+        assertEquals(List.of(-1L), response.missing());
+        assertEquals(3, response.items().get(0).getTags().size());
+        // статьи + теги на все найденные
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        articleService.getArticlesByIds(requested);
+        // найденные - из кэша, за отсутствующим id снова один запрос статей, без тегов
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void batchGetOverLimitIsRejectedBeforeQuerying() {
+        List<Long> tooMany = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        assertThrows(BadRequestException.class, () -> articleService.getArticlesByIds(tooMany));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,78 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.dto.ArticleBatchResponse;
+import com.keykomi.webblog.dto.ArticleDTO;
+import com.keykomi.webblog.dto.ArticleSummary;
+import com.keykomi.webblog.entity.Article;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ?fields= сужает SQL: без content статья не читается целиком, без tags нет запроса тегов
+ */
+class ArticleSparseFieldsTest extends ArticleJpaTest {
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        Article article = persistArticle("Sparse", "Long content", LocalDateTime.now(), List.of("java", "spring"));
+        flushAndClear();
+        id = article.getId();
+        resetStatements();
+    }
+
+    @Test
+    void articleWithoutContentSelectsOnlyRequestedColumns() {
+        ArticleDTO article = articleService.getArticleById(id, ArticleFields.parse("id,title"));
+
+        assertEquals("Sparse", article.getTitle());
+        assertNull(article.getContent());
+        assertNull(article.getTags());
+        assertEquals(1, RecordingStatementInspector.STATEMENTS.size());
+        assertFalse(statementsMention("content"));
+        assertFalse(statementsMention("article_tags"));
+    }
+
+    @Test
+    void requestedTagsAreLoadedWithoutContent() {
+        ArticleBatchResponse response = articleService.getArticlesByIds(List.of(id), ArticleFields.parse("title,tags"));
+
+        assertEquals(2, response.items().get(0).getTags().size());
+        assertEquals(2, RecordingStatementInspector.STATEMENTS.size());
+        assertFalse(statementsMention("content"));
+    }
+
+    @Test
+    void feedPageWithoutTagsSkipsTagQuery() {
+        Page<ArticleSummary> page = articleService.getArticlesByPage(1, 10, ArticleFields.parse("id,title"));
+
+        assertEquals("Sparse", page.getContent().get(0).getTitle());
+        assertNull(page.getContent().get(0).getTags());
+        assertFalse(statementsMention("article_tags"));
+    }
+
+    @Test
+    void fullFieldsStillLoadContentAndTags() {
+        ArticleDTO article = articleService.getArticleById(id, ArticleFields.parse("content,tags"));
+
+        assertEquals("Long content", article.getContent());
+        assertEquals(2, article.getTags().size());
+        assertTrue(statementsMention("content"));
+    }
+
+    private static boolean statementsMention(String text) {
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .anyMatch(sql -> sql.toLowerCase(Locale.ROOT).contains(text));
+    }
+}
@@ -0,0 +1,81 @@
+package com.keykomi.webblog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrecompressedResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ArticleChangeTracker changeTracker = new ArticleChangeTracker();
+    private final PrecompressedResponses responses = new PrecompressedResponses(objectMapper, changeTracker,
+            new SimpleMeterRegistry(), true, 5, DataSize.ofBytes(512), DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<Object> page = () -> {
+        loads.incrementAndGet();
+        return Map.of("content", List.of("Текст статьи о повседневной жизни. ".repeat(100)));
+    };
+
+    @Test
+    void servesGzipOnlyWhenClientAcceptsIt() throws IOException {
+        ResponseEntity<?> gzip = responses.feedPage(1, 10, "gzip, deflate, br", page);
+        ResponseEntity<?> identity = responses.feedPage(1, 10, null, page);
+
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), gzip.getHeaders().getVary());
+
+        byte[] plain = (byte[]) identity.getBody();
+        byte[] compressed = (byte[]) gzip.getBody();
+        assertTrue(compressed.length < plain.length);
+        assertArrayEquals(plain, new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes());
+        assertArrayEquals(objectMapper.writeValueAsBytes(page.get()), plain);
+    }
+
+    @Test
+    void buildsBodyOnceUntilArticlesChange() {
+        responses.feedPage(1, 10, "gzip", page);
+        responses.feedPage(1, 10, "gzip", page);
+        assertEquals(1, loads.get());
+
+        changeTracker.markChanged();
+        responses.feedPage(1, 10, "gzip", page);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void leavesSmallBodiesUncompressed() {
+        ResponseEntity<?> response = responses.respond(ResponseEntity.ok(), "small", "gzip", () -> Map.of("id", 1));
+
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void respectsZeroQuality() {
+        assertTrue(PrecompressedResponses.acceptsGzip("gzip"));
+        assertTrue(PrecompressedResponses.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(PrecompressedResponses.acceptsGzip("*"));
+        assertFalse(PrecompressedResponses.acceptsGzip("gzip;q=0"));
+        assertFalse(PrecompressedResponses.acceptsGzip("br, deflate"));
+        assertFalse(PrecompressedResponses.acceptsGzip(""));
+    }
+}
@@ -0,0 +1,86 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.repository.ArticleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadCountAggregatorTest {
+
+    private final ArticleRepository articleRepository = mock(ArticleRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private ReadCountAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new ReadCountAggregator(articleRepository, jdbcTemplate, new SimpleMeterRegistry(), 500);
+    }
+
+    @Test
+    void manualOverwriteDiscardsPendingDeltas() {
+        when(articleRepository.findReadCountById(1L)).thenReturn(Optional.of(10L));
+        aggregator.increment(1L);
+        aggregator.increment(1L);
+        // Клиент видел 12 и записал их в колонку
+        when(articleRepository.findReadCountById(1L)).thenReturn(Optional.of(12L));
+
+        aggregator.evict(1L);
+        aggregator.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertEquals(0, aggregator.pendingDeltas());
+        assertEquals(13, aggregator.increment(1L));
+    }
+
+    @Test
+    void flushWritesDeltaOnceAndKeepsEstimate() {
+        when(articleRepository.findReadCountById(1L)).thenReturn(Optional.of(5L));
+        aggregator.increment(1L);
+        aggregator.increment(1L);
+
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(7L, aggregator.estimate(1L, 5L));
+    }
+
+    @Test
+    void idleCounterIsDroppedAfterFlushedAndReloadedOnNextRead() {
+        when(articleRepository.findReadCountById(1L)).thenReturn(Optional.of(5L));
+        aggregator.increment(1L);
+
+        aggregator.flush();
+        aggregator.flush();
+        aggregator.flush();
+
+        // Второй сброс подряд без прочтений: счетчик выброшен, чтения берут значение из БД
+        assertEquals(42L, aggregator.estimate(1L, 42L));
+        when(articleRepository.findReadCountById(1L)).thenReturn(Optional.of(6L));
+        assertEquals(7, aggregator.increment(1L));
+        verify(articleRepository, times(2)).findReadCountById(1L);
+    }
+
+    @Test
+    void untrackedArticleUsesPersistedValue() {
+        assertEquals(3L, aggregator.estimate(2L, 3L));
+
+        aggregator.evict(2L);
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(articleRepository, never()).findReadCountById(2L);
+    }
+}
@@ -0,0 +1,24 @@
+package com.keykomi.webblog.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SQL, который Hibernate отправил в БД, - для проверок "какие колонки читались / писались".
+ * Подключается свойством hibernate.session_factory.statement_inspector
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.keykomi.webblog.service.RecordingStatementInspector";
+
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,69 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.MutableClock;
+import com.keykomi.webblog.PostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Upsert часов в article_read_buckets против настоящего Postgres (ON CONFLICT, внешний ключ)
+ */
+class TrendingServicePostgresTest extends PostgresTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T12:30:00Z"));
+
+    private TrendingService trendingService;
+    private Long articleId;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = newTrendingService();
+        articleId = jdbcTemplate.queryForObject(
+                "INSERT INTO articles (title, content) VALUES ('Read', 'read') RETURNING id", Long.class);
+    }
+
+    @Test
+    void readsOfDeletedArticleDoNotBreakFlush() {
+        read(articleId, 3);
+        read(articleId + 1000, 2);
+
+        trendingService.flush();
+        read(articleId, 2);
+        trendingService.flush();
+
+        // Пачка с отсутствующей статьей записана, дельты сложились через ON CONFLICT
+        assertEquals(List.of(5L), jdbcTemplate.queryForList(
+                "SELECT reads FROM article_read_buckets WHERE article_id = ?", Long.class, articleId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM article_read_buckets", Integer.class));
+    }
+
+    @Test
+    void rankingIsRestoredFromBuckets() {
+        Long other = jdbcTemplate.queryForObject(
+                "INSERT INTO articles (title, content) VALUES ('Other', 'other') RETURNING id", Long.class);
+        read(other, 1);
+        read(articleId, 4);
+        trendingService.flush();
+
+        TrendingService restarted = newTrendingService();
+        restarted.load();
+
+        assertEquals(List.of(articleId, other), restarted.topIds("24h", 10));
+    }
+
+    private TrendingService newTrendingService() {
+        return new TrendingService(jdbcTemplate, clock, "1h,24h", Duration.ofHours(6), 10, 500);
+    }
+
+    private void read(Long id, int times) {
+        for (int i = 0; i < times; i++) {
+            trendingService.recordRead(id);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.MutableClock;
+import com.keykomi.webblog.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TrendingServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T12:30:00Z"));
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = new TrendingService(jdbcTemplate, clock, "1h,24h", Duration.ofHours(6), 3, 500);
+    }
+
+    @Test
+    void recentReadsOutrankOlderOnes() {
+        read(1L, 10);
+        clock.advance(Duration.ofHours(12));
+        read(2L, 6);
+
+        trendingService.recompute();
+
+        // 10 прочтений 12.5 часа назад: ~10 * 0.24; 6 прочтений полчаса назад: ~6 * 0.94
+        assertEquals(List.of(2L, 1L), trendingService.topIds("24h", 10));
+        assertEquals(List.of(2L), trendingService.topIds("1h", 10));
+    }
+
+    @Test
+    void keepsOnlyTopKAndRespectsLimit() {
+        read(1L, 1);
+        read(2L, 4);
+        read(3L, 3);
+        read(4L, 2);
+
+        trendingService.recompute();
+
+        assertEquals(List.of(2L, 3L, 4L), trendingService.topIds("24h", 10));
+        assertEquals(List.of(2L, 3L), trendingService.topIds("24h", 2));
+    }
+
+    @Test
+    void readsOutsideWindowAreDropped() {
+        read(1L, 5);
+        clock.advance(Duration.ofHours(25));
+        read(2L, 1);
+
+        trendingService.refresh();
+
+        assertEquals(List.of(2L), trendingService.topIds("24h", 10));
+    }
+
+    @Test
+    void removedArticleLeavesRankingAtOnce() {
+        read(1L, 5);
+        read(2L, 3);
+        trendingService.recompute();
+
+        trendingService.remove(1L);
+
+        assertEquals(List.of(2L), trendingService.topIds("24h", 10));
+        // И не возвращается после пересчета: его счетчиков больше нет
+        trendingService.refresh();
+        assertEquals(List.of(2L), trendingService.topIds("24h", 10));
+    }
+
+    @Test
+    void flushWritesOnlyPendingDeltas() {
+        read(1L, 3);
+
+        trendingService.flush();
+        trendingService.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void rejectsUnsupportedWindow() {
+        assertThrows(BadRequestException.class, () -> trendingService.topIds("3d", 10));
+        assertThrows(BadRequestException.class, () -> trendingService.topIds("soon", 10));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private void read(Long articleId, int times) {
+        for (int i = 0; i < times; i++) {
+            trendingService.recordRead(articleId);
+        }
+    }
+}
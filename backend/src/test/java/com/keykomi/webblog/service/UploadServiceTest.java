@@ -0,0 +1,359 @@
+package com.keykomi.webblog.service;
+
+import com.keykomi.webblog.dto.UploadStatus;
+import com.keykomi.webblog.exception.UploadRejectedException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Потоковая загрузка против локального S3-совместимого стенда: HTTP-сервер в процессе,
+ * хранит объекты из PUT и отдает их на GET
+ */
+class UploadServiceTest {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    private final List<ReceivedObject> received = new CopyOnWriteArrayList<>();
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ArticleService articleService = mock(ArticleService.class);
+
+    private HttpServer s3;
+    private S3AsyncClient s3Client;
+    private ImageVariantService imageVariantService;
+    private UploadService uploadService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        s3.createContext("/", this::handle);
+        s3.start();
+
+        s3Client = S3AsyncClient.builder()
+                .region(Region.of("ru-central1"))
+                .endpointOverride(URI.create("http://localhost:" + s3.getAddress().getPort()))
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .build();
+
+        imageVariantService = new ImageVariantService(s3Client, "blog",
+                "http://cdn.example.com/blog", 0.8f, 16_000_000, 1, 10);
+        uploadService = uploadService(imageVariantService);
+    }
+
+    private UploadService uploadService(ImageVariantService variants) {
+        return new UploadService(s3Client, variants, articleService, meterRegistry, "blog", "http://cdn.example.com/blog",
+                DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        s3.stop(0);
+    }
+
+    @Test
+    void streamsImageAndReportsCompletedUpload() throws Exception {
+        byte[] image = png(256 * 1024);
+
+        UploadStatus started = uploadService.startUpload(new ByteArrayInputStream(image), image.length);
+        UploadStatus status = awaitFinished(started.id());
+
+        assertEquals(UploadStatus.State.COMPLETED, status.status());
+        ReceivedObject object = received.get(0);
+        assertEquals("PUT", object.method());
+        assertTrue(object.path().startsWith("/blog/articles/") && object.path().endsWith("/original.png"), object.path());
+        assertEquals("image/png", object.contentType());
+        assertEquals(image.length, object.length());
+        assertEquals("http://cdn.example.com" + object.path(), status.url());
+
+        DistributionSummary size = meterRegistry.get("blog.upload.size").tag("outcome", "success").summary();
+        assertEquals(1, size.count());
+        assertEquals(image.length, size.totalAmount());
+        assertEquals(1, meterRegistry.get("blog.upload.duration")
+                .tag("format", "png").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("blog.upload.size").tag("format", "png").summary().count());
+    }
+
+    @Test
+    void generatesResizedVariantsNextToOriginal() throws Exception {
+        byte[] image = realPng(2000, 1000);
+
+        UploadStatus started = uploadService.startUpload(new ByteArrayInputStream(image), image.length);
+        UploadStatus status = awaitVariants(started.id());
+
+        assertEquals(List.of("320w", "768w", "1280w"), List.copyOf(status.variants().keySet()));
+        String base = status.url().substring(0, status.url().lastIndexOf('/') + 1);
+        for (int width : ImageVariants.WIDTHS) {
+            String url = status.variants().get(width + "w");
+            assertEquals(base + "w" + width + ".jpg", url);
+
+            BufferedImage variant = ImageIO.read(new ByteArrayInputStream(
+                    objects.get(url.substring("http://cdn.example.com".length()))));
+            assertEquals(width, variant.getWidth());
+            assertEquals(width / 2, variant.getHeight());
+        }
+        verify(articleService).imageVariantsReady(status.url(), status.variants());
+        assertEquals(status.variants(), ImageVariants.srcset(status.url(), ImageVariants.widths(status.variants())));
+    }
+
+    @Test
+    void variantsAreKeyedByEncodedWidth() throws Exception {
+        // 500px: 768w и 1280w не делаются (увеличения нет), дескриптор 320w - настоящий
+        assertEquals(Map.of(320, 160), uploadAndReadVariants(500, 250));
+        // Уже самой маленькой цели - один вариант в собственную ширину
+        assertEquals(Map.of(200, 100), uploadAndReadVariants(200, 100));
+    }
+
+    @Test
+    void undecodableImageGetsNoSrcset() throws Exception {
+        CompletableFuture<CompletableFuture<?>> generated = new CompletableFuture<>();
+        ImageVariantService variants = spy(imageVariantService);
+        doAnswer(invocation -> {
+            CompletableFuture<?> future = (CompletableFuture<?>) invocation.callRealMethod();
+            generated.complete(future);
+            return future;
+        }).when(variants).generate(anyString());
+        uploadService = uploadService(variants);
+        // Сигнатура PNG, дальше мусор: загрузка проходит, декодирование - нет
+        byte[] image = png(64 * 1024);
+
+        UploadStatus started = uploadService.startUpload(new ByteArrayInputStream(image), image.length);
+
+        CompletableFuture<?> job = generated.get(10, TimeUnit.SECONDS);
+        assertTrue(job.handle((result, error) -> error != null).get(10, TimeUnit.SECONDS));
+        UploadStatus status = awaitFinished(started.id());
+        assertEquals(UploadStatus.State.COMPLETED, status.status());
+        assertNull(status.variants());
+        verify(articleService, never()).imageVariantsReady(anyString(), anyMap());
+    }
+
+    @Test
+    void rejectedVariantJobGetsNoSrcset() throws Exception {
+        ImageVariantService variants = mock(ImageVariantService.class);
+        when(variants.supports(any())).thenReturn(true);
+        when(variants.generate(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue is full")));
+        uploadService = uploadService(variants);
+        byte[] image = realPng(100, 50);
+
+        UploadStatus started = uploadService.startUpload(new ByteArrayInputStream(image), image.length);
+
+        verify(variants, timeout(10_000)).generate(anyString());
+        UploadStatus status = awaitFinished(started.id());
+        assertEquals(UploadStatus.State.COMPLETED, status.status());
+        assertNull(status.variants());
+        verify(articleService, never()).imageVariantsReady(anyString(), anyMap());
+    }
+
+    @Test
+    void formatWithoutDecoderIsNotQueued() throws Exception {
+        ImageVariantService variants = spy(imageVariantService);
+        uploadService = uploadService(variants);
+        // RIFF....WEBP: в JDK нет декодера WebP
+        byte[] image = new byte[4096];
+        System.arraycopy("RIFF".getBytes(StandardCharsets.US_ASCII), 0, image, 0, 4);
+        System.arraycopy("WEBP".getBytes(StandardCharsets.US_ASCII), 0, image, 8, 4);
+
+        UploadStatus started = uploadService.startUpload(new ByteArrayInputStream(image), image.length);
+
+        assertEquals(UploadStatus.State.COMPLETED, awaitFinished(started.id()).status());
+        verify(variants, timeout(10_000)).supports(ImageType.WEBP);
+        verify(variants, never()).generate(anyString());
+        verify(articleService, never()).imageVariantsReady(anyString(), anyMap());
+    }
+
+    @Test
+    void rejectsNonImageBeforeTransfer() {
+        byte[] text = "<html><body>not an image</body></html>".getBytes();
+
+        UploadRejectedException e = assertThrows(UploadRejectedException.class,
+                () -> uploadService.startUpload(new ByteArrayInputStream(text), text.length));
+
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, e.getStatus());
+        assertTrue(received.isEmpty());
+        assertEquals(1, meterRegistry.get("blog.upload.rejected").tag("status", "415").counter().count());
+    }
+
+    @Test
+    void rejectsOversizedUploadWithoutReadingBody() {
+        InputStream body = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("body must not be read");
+            }
+        };
+
+        UploadRejectedException e = assertThrows(UploadRejectedException.class,
+                () -> uploadService.startUpload(body, DataSize.ofMegabytes(2).toBytes()));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+        assertTrue(received.isEmpty());
+    }
+
+    // Ширина из ключа srcset -> высота, у файлов варианта ширина совпадает с ключом
+    private Map<Integer, Integer> uploadAndReadVariants(int width, int height) throws Exception {
+        byte[] image = realPng(width, height);
+        UploadStatus started = uploadService.startUpload(new ByteArrayInputStream(image), image.length);
+        UploadStatus status = awaitVariants(started.id());
+
+        verify(articleService).imageVariantsReady(status.url(), status.variants());
+        assertEquals(status.variants(), ImageVariants.srcset(status.url(), ImageVariants.widths(status.variants())));
+        Map<Integer, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : status.variants().entrySet()) {
+            BufferedImage variant = ImageIO.read(new ByteArrayInputStream(
+                    objects.get(entry.getValue().substring("http://cdn.example.com".length()))));
+            String descriptor = entry.getKey();
+            assertEquals(Integer.parseInt(descriptor.substring(0, descriptor.length() - 1)), variant.getWidth());
+            sizes.put(variant.getWidth(), variant.getHeight());
+        }
+        return sizes;
+    }
+
+    private UploadStatus awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        UploadStatus status = uploadService.getStatus(id).orElseThrow();
+        while (status.status() == UploadStatus.State.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = uploadService.getStatus(id).orElseThrow();
+        }
+        return status;
+    }
+
+    private UploadStatus awaitVariants(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        UploadStatus status = uploadService.getStatus(id).orElseThrow();
+        while (status.variants() == null && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            status = uploadService.getStatus(id).orElseThrow();
+        }
+        return status;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+
+        if ("GET".equals(exchange.getRequestMethod())) {
+            byte[] object = objects.get(path);
+            if (object == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                exchange.sendResponseHeaders(200, object.length);
+                exchange.getResponseBody().write(object);
+            }
+            exchange.close();
+            return;
+        }
+
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        // SDK может прислать тело в aws-chunked: размер данных тогда в отдельном заголовке
+        String decodedLength = exchange.getRequestHeaders().getFirst("x-amz-decoded-content-length");
+        if (decodedLength != null) {
+            body = decodeAwsChunked(body);
+        }
+        objects.put(path, body);
+        received.add(new ReceivedObject(
+                exchange.getRequestMethod(),
+                path,
+                exchange.getRequestHeaders().getFirst("Content-Type"),
+                body.length));
+
+        exchange.getResponseHeaders().add("ETag", "\"test-etag\"");
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+    }
+
+    // <hex-size>;chunk-signature=...\r\n<data>\r\n ... 0;chunk-signature=...\r\n
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = position;
+            while (body[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static byte[] realPng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    private static byte[] png(int size) {
+        byte[] image = new byte[size];
+        System.arraycopy(PNG_SIGNATURE, 0, image, 0, PNG_SIGNATURE.length);
+        for (int i = PNG_SIGNATURE.length; i < size; i++) {
+            image[i] = (byte) i;
+        }
+        return image;
+    }
+
+    private record ReceivedObject(String method, String path, String contentType, long length) {
+    }
+}
@@ -0,0 +1,15 @@
+-- Таблицы без JPA-сущностей: в H2 их не создает Hibernate (в Postgres - create_tables.sql / migrations).
+-- Выполняется после создания схемы Hibernate (defer-datasource-initialization), ссылки на articles есть
+CREATE TABLE IF NOT EXISTS image_variants
+(
+    image_url VARCHAR(500) PRIMARY KEY,
+    widths    VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS article_read_buckets
+(
+    article_id   BIGINT                   NOT NULL REFERENCES articles ON DELETE CASCADE,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    reads        BIGINT                   NOT NULL,
+    PRIMARY KEY (article_id, bucket_start)
+);
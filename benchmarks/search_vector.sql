@@ -0,0 +1,58 @@
+-- Сравнение поиска: to_tsvector() на лету против хранимого search_vector + GIN.
+-- Запуск на схеме из create_tables.sql (все изменения откатываются):
+--   psql -d blog -v n=1000   -f benchmarks/search_vector.sql
+--   psql -d blog -v n=10000  -f benchmarks/search_vector.sql
+--   psql -d blog -v n=100000 -f benchmarks/search_vector.sql
+
+\if :{?n}
+\else
+\set n 1000
+\endif
+
+\timing on
+
+BEGIN;
+
+INSERT INTO articles (title, content, read_count, published_at)
+SELECT 'Статья ' || g || ' про ' || (ARRAY ['java', 'кофе', 'путешествия', 'музыку', 'книги'])[1 + g % 5],
+       repeat('Обычный текст статьи о повседневной жизни и программировании. ', 40)
+           || (ARRAY ['Spring Boot', 'Postgres', 'Docker', 'Next.js', 'nginx'])[1 + g % 5],
+       g % 1000,
+       now() - make_interval(mins => g)
+FROM generate_series(1, :n) AS g;
+
+INSERT INTO article_tags (article_id, tag)
+SELECT id, (ARRAY ['java', 'life', 'travel', 'music', 'books'])[1 + id % 5]
+FROM articles;
+
+ANALYZE articles;
+ANALYZE article_tags;
+
+\echo '--- old: to_tsvector on the fly'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id FROM articles
+WHERE to_tsvector('russian', coalesce(title, '') || ' ' || coalesce(content, ''))
+    @@ websearch_to_tsquery('russian', 'postgres')
+ORDER BY ts_rank_cd(
+         to_tsvector('russian', coalesce(title, '') || ' ' || coalesce(content, '')),
+         websearch_to_tsquery('russian', 'postgres')
+) DESC
+LIMIT 10;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM articles
+WHERE to_tsvector('russian', coalesce(title, '') || ' ' || coalesce(content, ''))
+    @@ websearch_to_tsquery('russian', 'postgres');
+
+\echo '--- new: stored search_vector + GIN'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id FROM articles
+WHERE search_vector @@ websearch_to_tsquery('russian', 'postgres')
+ORDER BY ts_rank_cd(search_vector, websearch_to_tsquery('russian', 'postgres')) DESC, id DESC
+LIMIT 10;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM articles
+WHERE search_vector @@ websearch_to_tsquery('russian', 'postgres');
+
+ROLLBACK;
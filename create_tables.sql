@@ -14,12 +14,19 @@ CREATE TABLE articles
     id           SERIAL PRIMARY KEY,
     title        VARCHAR(255) NOT NULL,
     content      TEXT         NOT NULL,
+    excerpt      VARCHAR(1000),
     read_count   INTEGER      DEFAULT 0,
     published_at TIMESTAMP WITH TIME ZONE,
+    updated_at   TIMESTAMP WITH TIME ZONE,
     image_url    VARCHAR(500),
-    author       VARCHAR(100) default 'KeykoMI'::character varying
+    image_widths VARCHAR(100),
+    author       VARCHAR(100) default 'KeykoMI'::character varying,
+    version      BIGINT       NOT NULL DEFAULT 0,
+    search_vector tsvector
 );
 
+CREATE INDEX IF NOT EXISTS idx_articles_published_at_id ON articles (published_at DESC, id DESC);
+
 CREATE TABLE article_tags
 (
     article_id bigint       not null
@@ -31,5 +38,100 @@ CREATE TABLE article_tags
 
 CREATE INDEX IF NOT EXISTS idx_article_tags_tag ON article_tags(tag);
 
+-- Реально созданные уменьшенные копии изображений (ImageVariantService), см. migrations/007_image_variants.sql
+CREATE TABLE image_variants
+(
+    image_url VARCHAR(500) PRIMARY KEY,
+    widths    VARCHAR(100) NOT NULL
+);
+
+-- Почасовые счетчики прочтений для рейтинга trending (TrendingService)
+CREATE TABLE article_read_buckets
+(
+    article_id   bigint                   not null
+        references articles
+            on delete cascade,
+    bucket_start TIMESTAMP WITH TIME ZONE not null,
+    reads        bigint                   not null,
+    primary key (article_id, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_article_read_buckets_bucket_start ON article_read_buckets (bucket_start);
+
+-- Полнотекстовый поиск: search_vector поддерживается триггерами (см. migrations/002_article_search_vector.sql)
+CREATE OR REPLACE FUNCTION article_search_vector(p_id BIGINT, p_title TEXT, p_content TEXT)
+    RETURNS tsvector
+    LANGUAGE sql
+    STABLE
+AS
+$$
+SELECT setweight(to_tsvector('russian', coalesce(p_title, '')), 'A')
+           || setweight(to_tsvector('russian', coalesce(
+        (SELECT string_agg(tag, ' ') FROM article_tags WHERE article_id = p_id), '')), 'B')
+           || setweight(to_tsvector('russian', coalesce(p_content, '')), 'C')
+$$;
+
+CREATE OR REPLACE FUNCTION articles_search_vector_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    NEW.search_vector := article_search_vector(NEW.id, NEW.title, NEW.content);
+    RETURN NEW;
+END
+$$;
+
+-- Только title/content: инкременты read_count не пересчитывают вектор
+CREATE OR REPLACE TRIGGER articles_search_vector_update
+    BEFORE INSERT OR UPDATE OF title, content
+    ON articles
+    FOR EACH ROW
+EXECUTE FUNCTION articles_search_vector_trigger();
+
+-- Теги: пересчет один раз на оператор (transition tables), см. migrations/005_article_tags_statement_trigger.sql
+CREATE OR REPLACE FUNCTION article_tags_search_vector_refresh()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE articles
+        SET search_vector = article_search_vector(id, title, content)
+        WHERE id IN (SELECT article_id FROM new_tags);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE articles
+        SET search_vector = article_search_vector(id, title, content)
+        WHERE id IN (SELECT article_id FROM old_tags);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER article_tags_search_vector_insert
+    AFTER INSERT
+    ON article_tags
+    REFERENCING NEW TABLE AS new_tags
+    FOR EACH STATEMENT
+EXECUTE FUNCTION article_tags_search_vector_refresh();
+
+CREATE OR REPLACE TRIGGER article_tags_search_vector_update
+    AFTER UPDATE
+    ON article_tags
+    REFERENCING OLD TABLE AS old_tags NEW TABLE AS new_tags
+    FOR EACH STATEMENT
+EXECUTE FUNCTION article_tags_search_vector_refresh();
+
+CREATE OR REPLACE TRIGGER article_tags_search_vector_delete
+    AFTER DELETE
+    ON article_tags
+    REFERENCING OLD TABLE AS old_tags
+    FOR EACH STATEMENT
+EXECUTE FUNCTION article_tags_search_vector_refresh();
+
+CREATE INDEX IF NOT EXISTS idx_articles_search_vector ON articles USING GIN (search_vector);
+
 INSERT INTO users (username, mail, hashed_password, created_at)
 VALUES ('admin', 'admin@example.com', 'hashed_password', NOW());
\ No newline at end of file
@@ -0,0 +1,9 @@
+-- Превью статьи для списков (ArticleSummary), чтобы ленты не читали content.
+-- Новые и измененные статьи получают excerpt при записи в ArticleService,
+-- здесь заполняем существующие строки приближенной версией (без разбора markdown).
+
+ALTER TABLE articles ADD COLUMN IF NOT EXISTS excerpt VARCHAR(1000);
+
+UPDATE articles
+SET excerpt = left(trim(regexp_replace(regexp_replace(content, '[#*_`>~|]', '', 'g'), '\s+', ' ', 'g')), 300)
+WHERE excerpt IS NULL;
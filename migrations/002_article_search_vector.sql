@@ -0,0 +1,62 @@
+-- Полнотекстовый поиск по хранимому search_vector вместо to_tsvector() на каждый запрос.
+-- Веса: title - A, теги - B, content - C. Колонку поддерживают триггеры:
+-- на articles (изменение title/content) и на article_tags (теги в другой таблице,
+-- поэтому GENERATED-колонка здесь не подходит).
+
+ALTER TABLE articles ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION article_search_vector(p_id BIGINT, p_title TEXT, p_content TEXT)
+    RETURNS tsvector
+    LANGUAGE sql
+    STABLE
+AS
+$$
+SELECT setweight(to_tsvector('russian', coalesce(p_title, '')), 'A')
+           || setweight(to_tsvector('russian', coalesce(
+        (SELECT string_agg(tag, ' ') FROM article_tags WHERE article_id = p_id), '')), 'B')
+           || setweight(to_tsvector('russian', coalesce(p_content, '')), 'C')
+$$;
+
+CREATE OR REPLACE FUNCTION articles_search_vector_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    NEW.search_vector := article_search_vector(NEW.id, NEW.title, NEW.content);
+    RETURN NEW;
+END
+$$;
+
+-- Только title/content: инкременты read_count не пересчитывают вектор
+CREATE OR REPLACE TRIGGER articles_search_vector_update
+    BEFORE INSERT OR UPDATE OF title, content
+    ON articles
+    FOR EACH ROW
+EXECUTE FUNCTION articles_search_vector_trigger();
+
+CREATE OR REPLACE FUNCTION article_tags_search_vector_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    v_article_id BIGINT := CASE WHEN TG_OP = 'DELETE' THEN OLD.article_id ELSE NEW.article_id END;
+BEGIN
+    UPDATE articles
+    SET search_vector = article_search_vector(id, title, content)
+    WHERE id = v_article_id;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER article_tags_search_vector_update
+    AFTER INSERT OR UPDATE OR DELETE
+    ON article_tags
+    FOR EACH ROW
+EXECUTE FUNCTION article_tags_search_vector_trigger();
+
+UPDATE articles
+SET search_vector = article_search_vector(id, title, content);
+
+CREATE INDEX IF NOT EXISTS idx_articles_search_vector ON articles USING GIN (search_vector);
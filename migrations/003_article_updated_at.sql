@@ -0,0 +1,8 @@
+-- updated_at - источник ETag / Last-Modified для GET /api/articles/{id}.
+-- Дальше его выставляет приложение (Article @PrePersist/@PreUpdate, ArticleService).
+
+ALTER TABLE articles ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
+
+UPDATE articles
+SET updated_at = coalesce(published_at, now())
+WHERE updated_at IS NULL;
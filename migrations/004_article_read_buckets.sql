@@ -0,0 +1,15 @@
+-- Почасовые счетчики прочтений для GET /api/articles/trending.
+-- Пишет TrendingService пачками upsert (строки удаленных статей не пишутся). Часы старше самого
+-- длинного окна (app.trending.windows) удаляются им же по расписанию app.trending.purge-cron.
+
+CREATE TABLE IF NOT EXISTS article_read_buckets
+(
+    article_id   bigint                   not null
+        references articles
+            on delete cascade,
+    bucket_start TIMESTAMP WITH TIME ZONE not null,
+    reads        bigint                   not null,
+    primary key (article_id, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_article_read_buckets_bucket_start ON article_read_buckets (bucket_start);
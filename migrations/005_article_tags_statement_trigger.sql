@@ -0,0 +1,47 @@
+-- search_vector по тегам пересчитывается один раз на оператор, а не на каждую строку article_tags:
+-- пакетная вставка тегов (POST /api/articles/bulk) обновляет каждую статью пачки один раз.
+-- Затронутые статьи берутся из transition tables (new_tags / old_tags).
+
+DROP TRIGGER IF EXISTS article_tags_search_vector_update ON article_tags;
+DROP FUNCTION IF EXISTS article_tags_search_vector_trigger();
+
+CREATE OR REPLACE FUNCTION article_tags_search_vector_refresh()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE articles
+        SET search_vector = article_search_vector(id, title, content)
+        WHERE id IN (SELECT article_id FROM new_tags);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE articles
+        SET search_vector = article_search_vector(id, title, content)
+        WHERE id IN (SELECT article_id FROM old_tags);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER article_tags_search_vector_insert
+    AFTER INSERT
+    ON article_tags
+    REFERENCING NEW TABLE AS new_tags
+    FOR EACH STATEMENT
+EXECUTE FUNCTION article_tags_search_vector_refresh();
+
+CREATE OR REPLACE TRIGGER article_tags_search_vector_update
+    AFTER UPDATE
+    ON article_tags
+    REFERENCING OLD TABLE AS old_tags NEW TABLE AS new_tags
+    FOR EACH STATEMENT
+EXECUTE FUNCTION article_tags_search_vector_refresh();
+
+CREATE OR REPLACE TRIGGER article_tags_search_vector_delete
+    AFTER DELETE
+    ON article_tags
+    REFERENCING OLD TABLE AS old_tags
+    FOR EACH STATEMENT
+EXECUTE FUNCTION article_tags_search_vector_refresh();
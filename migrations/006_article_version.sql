@@ -0,0 +1,4 @@
+-- version - оптимистическая блокировка (Article @Version): PUT / PATCH передают версию,
+-- которую видел клиент, и получают 409, если статью успели изменить.
+
+ALTER TABLE articles ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
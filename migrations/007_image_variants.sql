@@ -0,0 +1,13 @@
+-- Уменьшенные копии изображений (ImageVariantService) создаются в фоне и могут не появиться:
+-- очередь переполнена, формат не читается, ошибка S3. Поэтому набор реально созданных ширин
+-- хранится, а image_srcset строится только по нему.
+-- image_variants - что сделала фоновая задача (по URL оригинала), image_widths - копия в статье,
+-- чтобы списки не делали лишних запросов. Картинки, загруженные раньше, остаются без srcset.
+
+CREATE TABLE IF NOT EXISTS image_variants
+(
+    image_url VARCHAR(500) PRIMARY KEY,
+    widths    VARCHAR(100) NOT NULL
+);
+
+ALTER TABLE articles ADD COLUMN IF NOT EXISTS image_widths VARCHAR(100);